@@ -0,0 +1,196 @@
+package ma.ensaf.ecommerce.benchmarks;
+
+import ma.ensaf.catalogue.CatalogueServiceApplication;
+import ma.ensaf.catalogue.service.ProductImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test de charge HTTP du service catalogue, threads de plateforme contre threads virtuels.
+ *
+ * Pour chaque mode, le service est démarré dans ce processus (port aléatoire, base H2 dédiée remplie
+ * par l'import en masse), puis N clients en boucle fermée envoient des requêtes bloquantes
+ * (une requête à la fois par client, sans pause) pendant la durée demandée. On mesure le débit,
+ * les latences p50 / p99 et le nombre d'erreurs (timeouts, connexions refusées, statuts != 200).
+ *
+ * Usage : CatalogueLoadTest [clients=1000,2000,5000,10000] [duration=20] [rows=10000]
+ * (chaque client ouvre une connexion : prévoir {@code ulimit -n} d'au moins 2 x clients)
+ */
+public class CatalogueLoadTest {
+
+    private static final int CATEGORIES = 100;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    record Result(String mode, int clients, long requests, long errors, double seconds, long p50Micros, long p99Micros) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = {1000, 2000, 5000, 10000};
+        int duration = 20;
+        int rows = 10_000;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "clients" -> clients = Arrays.stream(option[1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "duration" -> duration = Integer.parseInt(option[1]);
+                case "rows" -> rows = Integer.parseInt(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                seed(context.getBean(ProductImportService.class), rows);
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/catalogue";
+                String mode = virtualThreads ? "virtual" : "platform";
+                // chauffe (JIT, caches, pool JDBC) avant les mesures
+                run(mode, baseUrl, 100, 5, rows);
+                for (int n : clients) {
+                    Result result = run(mode, baseUrl, n, duration, rows);
+                    System.out.println(format(result));
+                    results.add(result);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-9s %8s %10s %10s %10s %8s%n", "mode", "clients", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        results.forEach(result -> System.out.println(format(result)));
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CatalogueServiceApplication.class);
+        if (virtualThreads) {
+            builder.profiles("virtual-threads");
+        }
+        // arguments de ligne de commande : prioritaires sur application.yaml (et sur le profil)
+        return builder.run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:catalogue_load_" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                // même limite de connexions dans les deux modes : seule la façon de les servir change
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=OFF",
+                "--logging.level.ma.ensaf=WARN");
+    }
+
+    private static void seed(ProductImportService importService, int rows) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            ndjson.append("{\"name\":\"Product ").append(i)
+                    .append("\",\"sku\":\"LOAD-").append(i)
+                    .append("\",\"price\":").append(1 + i % 1000)
+                    .append(",\"stockQuantity\":100,\"category\":\"category-").append(i % CATEGORIES)
+                    .append("\",\"available\":true}\n");
+        }
+        importService.importProducts(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * {@code clients} clients en boucle fermée pendant {@code seconds} secondes. Chaque requête est soit
+     * une lecture par id, soit un filtre par catégorie et plage de prix (non caché : une vraie requête SQL).
+     */
+    private static Result run(String mode, String baseUrl, int clients, int seconds, int rows) throws InterruptedException {
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] window = new long[2];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(executor)
+                     .connectTimeout(REQUEST_TIMEOUT)
+                     .build()) {
+            CountDownLatch done = new CountDownLatch(clients);
+            for (int c = 0; c < clients; c++) {
+                int index = c;
+                executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    try {
+                        start.await();
+                        while (System.nanoTime() < window[1]) {
+                            HttpRequest request = HttpRequest.newBuilder(randomUri(baseUrl, rows)).timeout(REQUEST_TIMEOUT).build();
+                            long begin = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                    continue;
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = System.nanoTime() - begin;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        latencies[index] = samples;
+                        counts[index] = count;
+                        done.countDown();
+                    }
+                });
+            }
+            window[0] = System.nanoTime();
+            window[1] = window[0] + Duration.ofSeconds(seconds).toNanos();
+            start.countDown();
+            done.await();
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(mode, clients, total, errors.get(), seconds, percentile(all, 0.50) / 1000, percentile(all, 0.99) / 1000);
+    }
+
+    private static URI randomUri(String baseUrl, int rows) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextBoolean()) {
+            return URI.create(baseUrl + "/api/v1/products/" + (1 + random.nextInt(rows)));
+        }
+        int minPrice = random.nextInt(900);
+        return URI.create(baseUrl + "/api/v1/products/filter?category=category-" + random.nextInt(CATEGORIES)
+                + "&minPrice=" + minPrice + "&maxPrice=" + (minPrice + 100) + "&limit=20");
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static String format(Result result) {
+        return String.format("%-9s %8d %10.0f %10.1f %10.1f %8d", result.mode(), result.clients(),
+                result.requests() / result.seconds(), result.p50Micros() / 1000.0, result.p99Micros() / 1000.0, result.errors());
+    }
+}
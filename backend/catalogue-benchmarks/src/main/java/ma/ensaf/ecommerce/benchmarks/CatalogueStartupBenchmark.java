@@ -0,0 +1,137 @@
+package ma.ensaf.ecommerce.benchmarks;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Temps jusqu'à la première requête du service catalogue, du lancement de la JVM à la première réponse 200
+ * de {@code GET /api/v1/products?size=1} (contexte Spring, Hibernate, pool JDBC et Tomcat prêts).
+ *
+ * Chaque mesure démarre un nouveau processus à partir du build fast-start extrait
+ * (tmp/catalogue-service : mvn -Pfast-start package), dans quatre modes cumulatifs :
+ * - default : configuration par défaut (ddl-auto de Hibernate)
+ * - profile : profil fast-start (schéma par script, pas de métadonnées JDBC, repositories différés)
+ * - aot : + classes générées au build (-Dspring.aot.enabled=true)
+ * - aot+cds : + archive CDS (-XX:SharedArchiveFile)
+ *
+ * Usage : CatalogueStartupBenchmark [app=../../tmp/catalogue-service/target/fast-start] [runs=5]
+ */
+public class CatalogueStartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String ARCHIVE = "catalogue-service.jsa";
+
+    enum Mode {
+        DEFAULT("default", List.of(), List.of()),
+        PROFILE("profile", List.of(), List.of("--spring.profiles.active=fast-start")),
+        AOT("aot", List.of("-Dspring.aot.enabled=true"), List.of("--spring.profiles.active=fast-start")),
+        AOT_CDS("aot+cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + ARCHIVE),
+                List.of("--spring.profiles.active=fast-start"));
+
+        final String label;
+        final List<String> jvmOptions;
+        final List<String> arguments;
+
+        Mode(String label, List<String> jvmOptions, List<String> arguments) {
+            this.label = label;
+            this.jvmOptions = jvmOptions;
+            this.arguments = arguments;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path app = Path.of("../../tmp/catalogue-service/target/fast-start");
+        int runs = 5;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "app" -> app = Path.of(option[1]);
+                case "runs" -> runs = Integer.parseInt(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        Path jar = findJar(app);
+        if (!Files.exists(app.resolve(ARCHIVE))) {
+            throw new IllegalStateException("No CDS archive in " + app.toAbsolutePath()
+                    + " : build tmp/catalogue-service with mvn -Pfast-start package");
+        }
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            System.out.printf("%-9s %12s %12s %12s%n", "mode", "min (ms)", "median (ms)", "max (ms)");
+            for (Mode mode : Mode.values()) {
+                long[] millis = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    millis[run] = timeToFirstRequest(java, app, jar, mode, client);
+                }
+                Arrays.sort(millis);
+                System.out.printf("%-9s %12d %12d %12d%n", mode.label, millis[0], millis[runs / 2], millis[runs - 1]);
+            }
+        }
+    }
+
+    private static long timeToFirstRequest(String java, Path app, Path jar, Mode mode, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(mode.jvmOptions);
+        command.addAll(List.of("-jar", jar.getFileName().toString()));
+        command.addAll(mode.arguments);
+        command.addAll(List.of("--server.port=" + port, "--logging.level.root=WARN", "--logging.level.org.hibernate.SQL=OFF",
+                "--spring.main.banner-mode=off"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/catalogue/api/v1/products?size=1"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(app.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.label + ": service exited with status " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // pas encore à l'écoute
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode.label + ": no response within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static Path findJar(Path app) throws IOException {
+        try (Stream<Path> files = Files.list(app)) {
+            return files.filter(file -> file.toString().endsWith(".jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No extracted jar in " + app.toAbsolutePath()
+                            + " : build tmp/catalogue-service with mvn -Pfast-start package"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
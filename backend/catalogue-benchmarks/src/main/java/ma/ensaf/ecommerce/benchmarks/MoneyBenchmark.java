@@ -0,0 +1,101 @@
+package ma.ensaf.ecommerce.benchmarks;
+
+import ma.ensaf.ecommerce.common.money.Money;
+import ma.ensaf.ecommerce.common.money.MoneyLines;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Total d'une commande de {@code lines} lignes (sous-total, TVA 20 %, livraison) selon la représentation
+ * des montants : Double (état actuel des prix), BigDecimal, Money ligne à ligne, et MoneyLines
+ * sur des tableaux primitifs (boucles vectorisables).
+ *
+ * Comparer ops/s et {@code gc.alloc.rate.norm} (profiler gc, activé par défaut dans jmh.args).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.20");
+    private static final BigDecimal SHIPPING = new BigDecimal("30.00");
+    private static final Money SHIPPING_MONEY = Money.parse("30.00");
+
+    @Param({"5", "100", "10000"})
+    private int lines;
+
+    private int[] quantities;
+    private double[] doublePrices;
+    private BigDecimal[] decimalPrices;
+    private Money[] moneyPrices;
+    private long[] minorPrices;
+    private long[] lineTotals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        quantities = new int[lines];
+        doublePrices = new double[lines];
+        decimalPrices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        minorPrices = new long[lines];
+        lineTotals = new long[lines];
+        for (int i = 0; i < lines; i++) {
+            long cents = 100 + random.nextLong(100_000);
+            quantities[i] = 1 + random.nextInt(5);
+            minorPrices[i] = cents;
+            doublePrices[i] = cents / 100.0;
+            decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+            moneyPrices[i] = Money.ofMinor(cents);
+        }
+    }
+
+    @Benchmark
+    public double doubleTotal() {
+        double subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            subtotal += doublePrices[i] * quantities[i];
+        }
+        double tax = Math.round(subtotal * 0.20 * 100) / 100.0;
+        return subtotal + tax + 30.0;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            subtotal = subtotal.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+        return subtotal.add(tax).add(SHIPPING);
+    }
+
+    @Benchmark
+    public Money moneyTotal() {
+        Money subtotal = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            subtotal = subtotal.plus(moneyPrices[i].times(quantities[i]));
+        }
+        return subtotal.plus(subtotal.multiply(20, 100)).plus(SHIPPING_MONEY);
+    }
+
+    @Benchmark
+    public long moneyLinesTotal() {
+        long subtotal = MoneyLines.sumOfProducts(minorPrices, quantities);
+        return Money.ofMinor(subtotal).multiply(20, 100).minorUnits() + subtotal + SHIPPING_MONEY.minorUnits();
+    }
+
+    // totaux de ligne matérialisés (OrderItem.totalPrice) puis sommés : deux boucles vectorisables
+    @Benchmark
+    public long moneyLinesTotalsThenSum() {
+        MoneyLines.multiply(minorPrices, quantities, lineTotals);
+        return MoneyLines.sum(lineTotals);
+    }
+}
@@ -0,0 +1,169 @@
+package ma.ensaf.ecommerce.benchmarks;
+
+import ma.ensaf.catalogue.CatalogueServiceApplication;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.search.ProductSearchIndex;
+import ma.ensaf.catalogue.search.ProductSuggestIndex;
+import ma.ensaf.catalogue.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks des chemins chauds du service catalogue, sur une base H2 embarquée
+ * remplie avec {@code rows} produits (100 catégories, descriptions tirées d'un petit vocabulaire).
+ *
+ * Lancement : voir README.md du module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCatalogueBenchmark {
+
+    private static final int CATEGORIES = 100;
+    private static final String[] WORDS = {
+            "wireless", "phone", "laptop", "screen", "cable", "charger", "keyboard", "mouse", "speaker", "camera",
+            "portable", "smart", "premium", "compact", "gaming", "office", "outdoor", "kitchen", "garden", "travel"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"wireless"})
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private ObjectMapper objectMapper;
+    private List<Product> page;
+    private List<ProductSummary> summaries;
+    private final AtomicLong createdSku = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // arguments de ligne de commande : prioritaires sur application.yaml (contrairement à properties(...))
+        context = new SpringApplicationBuilder(CatalogueServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:catalogue_bench;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=OFF",
+                        "--logging.level.ma.ensaf=WARN");
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ProductSearchIndex.class).rebuild();
+        context.getBean(ProductSuggestIndex.class).rebuild();
+        page = productRepository.findByCategory("category-7").stream().limit(100).toList();
+        summaries = productRepository.findSummariesByCategory("category-7").stream().limit(100).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Insère les produits directement en JDBC (le remplissage ne fait pas partie de la mesure)
+     */
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int batchSize = 10_000;
+        for (int from = 1; from <= rows; from += batchSize) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (long id = from; id < from + batchSize && id <= rows; id++) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                        + " " + WORDS[random.nextInt(WORDS.length)] + " product number " + id;
+                batch.add(new Object[]{id, "Product " + id, description, "SKU-" + id,
+                        1 + random.nextInt(100_000) / 100.0, random.nextInt(500),
+                        "category-" + id % CATEGORIES, random.nextInt(10) > 0, now, now, 0L});
+            }
+            jdbcTemplate.batchUpdate("insert into products (id, name, description, sku, price, stock_quantity, "
+                    + "category, available, created_at, updated_at, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+        // la séquence est "pooled" (blocs de 50) : sa valeur est la borne haute du prochain bloc
+        jdbcTemplate.execute("alter sequence products_seq restart with " + (rows + 51));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public Optional<Product> repositoryFindById() {
+        return productRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Product> serviceFindById() {
+        return productService.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Product> repositoryFindByKeyword() {
+        return productRepository.findByKeyword(keyword);
+    }
+
+    @Benchmark
+    public List<ProductSummary> serviceFindByKeyword() {
+        return productService.findByKeyword(keyword, 20);
+    }
+
+    // préfixe de SKU tapé au clavier : "sku-4", "sku-42", ... (autocomplétion, doit rester sous la milliseconde)
+    @Benchmark
+    public List<ProductSuggestion> serviceSuggest() {
+        String sku = Long.toString(randomId());
+        return productService.suggest("sku-" + sku.substring(0, 1 + ThreadLocalRandom.current().nextInt(sku.length())), 10);
+    }
+
+    @Benchmark
+    public List<Product> findByCategory() {
+        return productRepository.findByCategory("category-" + ThreadLocalRandom.current().nextInt(CATEGORIES));
+    }
+
+    @Benchmark
+    public List<ProductSummary> findSummariesByCategory() {
+        return productRepository.findSummariesByCategory("category-" + ThreadLocalRandom.current().nextInt(CATEGORIES));
+    }
+
+    @Benchmark
+    public Product create() {
+        String sku = "BENCH-" + createdSku.incrementAndGet();
+        return productService.create(Product.builder()
+                .name("Bench " + sku).sku(sku).price(10.0).category("bench").available(true).build());
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryList() {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,94 @@
+package ma.ensaf.ecommerce.benchmarks;
+
+import ma.ensaf.catalogue.CatalogueServiceApplication;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ImportReport;
+import ma.ensaf.catalogue.service.ProductImportService;
+import ma.ensaf.catalogue.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import de {@code products} produits en NDJSON : POST /import (lots d'une transaction, INSERT groupés)
+ * contre un create() par produit, comme un client qui enverrait un POST par ligne.
+ * Les deux variantes lisent le même flux avec Jackson ; chaque appel importe des SKU neufs.
+ *
+ * Lancement : voir README.md du module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductImportService productImportService;
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+    private long run;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(CatalogueServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:catalogue_import_bench;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=OFF",
+                        "--logging.level.ma.ensaf=WARN");
+        productImportService = context.getBean(ProductImportService.class);
+        productService = context.getBean(ProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // un flux par appel : les SKU d'un appel n'existent pas encore en base
+    @Setup(Level.Invocation)
+    public void nextFile() {
+        run++;
+        StringBuilder lines = new StringBuilder(products * 120);
+        for (int i = 0; i < products; i++) {
+            lines.append("{\"name\": \"Imported ").append(i).append("\", \"sku\": \"IMPORT-").append(run).append('-').append(i)
+                    .append("\", \"price\": ").append(1 + i % 1000).append(".5, \"stockQuantity\": ").append(i % 50)
+                    .append(", \"category\": \"category-").append(i % 100).append("\"}\n");
+        }
+        ndjson = lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ImportReport importChunked() {
+        return productImportService.importProducts(new ByteArrayInputStream(ndjson));
+    }
+
+    @Benchmark
+    public long createOneByOne() {
+        long created = 0;
+        try (MappingIterator<Product> lines = objectMapper.readerFor(Product.class).readValues(new ByteArrayInputStream(ndjson))) {
+            while (lines.hasNext()) {
+                productService.create(lines.next());
+                created++;
+            }
+        }
+        return created;
+    }
+}
@@ -2,6 +2,7 @@ package ma.ensaf.ecommerce.common.model;
 
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import ma.ensaf.ecommerce.common.money.Money;
 
 import java.time.LocalDateTime;
 
@@ -20,7 +21,7 @@ public class Product {
     
     private String description;
     
-    private Double price;
+    private Money price;
     
     private String category;
     
@@ -0,0 +1,121 @@
+package ma.ensaf.ecommerce.common.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Montant exact en centimes (2 décimales, comme les colonnes DECIMAL(10,2) des tables),
+ * porté par un long : additions et multiplications sans erreur d'arrondi binaire (contrairement
+ * à Double) et sans objet intermédiaire (contrairement à BigDecimal).
+ *
+ * La conversion depuis / vers BigDecimal, double ou texte n'a lieu qu'aux frontières
+ * (base de données, JSON, service catalogue). Les opérations lèvent une ArithmeticException
+ * en cas de dépassement de capacité.
+ */
+public record Money(long minorUnits) implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Montant décimal arrondi au centime le plus proche (HALF_UP)
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Montant issu d'un Double (prix du catalogue) : on part de sa représentation décimale la plus courte,
+     * pour que 19.99 donne bien 1999 centimes
+     */
+    public static Money of(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new ArithmeticException("Not a finite amount: " + amount);
+        }
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * "19.99", "20" ou "-0.5"
+     */
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long quantity) {
+        return ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    /**
+     * this × numerator / denominator, arrondi au centime le plus proche (HALF_UP) :
+     * un taux de TVA de 20 % s'écrit multiply(20, 100)
+     */
+    public Money multiply(long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive");
+        }
+        long product = Math.multiplyExact(minorUnits, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        // arrondi "au plus proche, les moitiés en s'éloignant de zéro", comme RoundingMode.HALF_UP
+        if (Math.abs(remainder) * 2 >= denominator) {
+            quotient += Long.signum(product);
+        }
+        return ofMinor(quotient);
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isGreaterThanOrEqualTo(Money other) {
+        return minorUnits >= other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * "19.99", "-0.50" : toujours deux décimales
+     */
+    @Override
+    public String toString() {
+        long units = minorUnits / MINOR_PER_UNIT;
+        long cents = Math.abs(minorUnits % MINOR_PER_UNIT);
+        String sign = minorUnits < 0 && units == 0 ? "-" : "";
+        return sign + units + (cents < 10 ? ".0" : ".") + cents;
+    }
+}
@@ -0,0 +1,24 @@
+package ma.ensaf.ecommerce.common.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Money ↔ colonne DECIMAL(10,2) : appliqué automatiquement à tout attribut Money d'une entité
+ * (autoApply), pour garder le schéma décrit dans docs/conception.md
+ */
+@Converter(autoApply = true)
+public class MoneyAttributeConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
@@ -0,0 +1,117 @@
+package ma.ensaf.ecommerce.common.money;
+
+/**
+ * Calculs en lot sur les lignes d'une commande, en centimes dans des tableaux primitifs.
+ *
+ * Les boucles sont de simples parcours d'indices sans branche ni appel, que le compilateur JIT
+ * (C2) déroule et vectorise (SIMD) : pas d'objet Money par ligne, pas de BigDecimal intermédiaire.
+ *
+ * Les dépassements de capacité ne sont pas vérifiés élément par élément, mais bornés :
+ * - chaque entrée est contrôlée dans la boucle même, sans branche (bit de signe accumulé par un OR) :
+ *   prix unitaire d'au plus MAX_UNIT_PRICE (DECIMAL(10,2)) et quantité d'au plus MAX_QUANTITY, en valeur absolue ;
+ *   un total de ligne tient donc dans MAX_LINE_TOTAL (~10^16 centimes), loin de Long.MAX_VALUE (~9,2 × 10^18)
+ * - les sommes sont faites par blocs de BLOCK_SIZE lignes, dont le total ne peut pas déborder ; le contrôle
+ *   est lu à la fin de chaque bloc (IllegalArgumentException) et les totaux des blocs sont additionnés
+ *   avec Math.addExact (ArithmeticException au-delà d'un long)
+ */
+public final class MoneyLines {
+
+    /**
+     * Plus grand prix unitaire accepté, en centimes : 99 999 999,99 (DECIMAL(10,2))
+     */
+    public static final long MAX_UNIT_PRICE = 9_999_999_999L;
+
+    /**
+     * Plus grande quantité acceptée sur une ligne
+     */
+    public static final int MAX_QUANTITY = 1_000_000;
+
+    /**
+     * Plus grand total de ligne, en centimes (MAX_UNIT_PRICE × MAX_QUANTITY)
+     */
+    public static final long MAX_LINE_TOTAL = MAX_UNIT_PRICE * MAX_QUANTITY;
+
+    // nombre de lignes dont la somme tient toujours dans un long (922)
+    private static final int BLOCK_SIZE = (int) (Long.MAX_VALUE / MAX_LINE_TOTAL);
+
+    private MoneyLines() {
+    }
+
+    /**
+     * Somme de montants en centimes, chacun d'au plus MAX_LINE_TOTAL en valeur absolue
+     */
+    public static long sum(long[] minorUnits) {
+        long total = 0;
+        for (int from = 0; from < minorUnits.length; from += BLOCK_SIZE) {
+            int to = Math.min(minorUnits.length, from + BLOCK_SIZE);
+            long block = 0;
+            long signs = 0;
+            for (int i = from; i < to; i++) {
+                long amount = minorUnits[i];
+                signs |= (MAX_LINE_TOTAL - amount) | (MAX_LINE_TOTAL + amount);
+                block += amount;
+            }
+            if (signs < 0) {
+                throw new IllegalArgumentException("Amounts must be within ±" + MAX_LINE_TOTAL + " minor units");
+            }
+            total = Math.addExact(total, block);
+        }
+        return total;
+    }
+
+    /**
+     * totals[i] = unitPrices[i] × quantities[i], en centimes
+     */
+    public static void multiply(long[] unitPrices, int[] quantities, long[] totals) {
+        checkLengths(unitPrices, quantities, totals.length);
+        long priceSigns = 0;
+        int quantitySigns = 0;
+        for (int i = 0; i < totals.length; i++) {
+            long unitPrice = unitPrices[i];
+            int quantity = quantities[i];
+            priceSigns |= (MAX_UNIT_PRICE - unitPrice) | (MAX_UNIT_PRICE + unitPrice);
+            quantitySigns |= (MAX_QUANTITY - quantity) | (MAX_QUANTITY + quantity);
+            totals[i] = unitPrice * quantity;
+        }
+        checkSigns(priceSigns, quantitySigns);
+    }
+
+    /**
+     * Sous-total d'une commande, somme des unitPrices[i] × quantities[i], en un seul parcours
+     */
+    public static long sumOfProducts(long[] unitPrices, int[] quantities) {
+        checkLengths(unitPrices, quantities, unitPrices.length);
+        long total = 0;
+        for (int from = 0; from < unitPrices.length; from += BLOCK_SIZE) {
+            int to = Math.min(unitPrices.length, from + BLOCK_SIZE);
+            long block = 0;
+            long priceSigns = 0;
+            int quantitySigns = 0;
+            for (int i = from; i < to; i++) {
+                long unitPrice = unitPrices[i];
+                int quantity = quantities[i];
+                priceSigns |= (MAX_UNIT_PRICE - unitPrice) | (MAX_UNIT_PRICE + unitPrice);
+                quantitySigns |= (MAX_QUANTITY - quantity) | (MAX_QUANTITY + quantity);
+                block += unitPrice * quantity;
+            }
+            checkSigns(priceSigns, quantitySigns);
+            total = Math.addExact(total, block);
+        }
+        return total;
+    }
+
+    // une valeur hors de [-bound, bound] rend (bound - v) ou (bound + v) négatif, même quand le calcul déborde :
+    // le OR accumulé garde ce bit de signe (prix en long, quantités en int, sans conversion dans la boucle)
+    private static void checkSigns(long priceSigns, int quantitySigns) {
+        if ((priceSigns | quantitySigns) < 0) {
+            throw new IllegalArgumentException("Unit prices must be within ±" + MAX_UNIT_PRICE
+                    + " minor units and quantities within ±" + MAX_QUANTITY);
+        }
+    }
+
+    private static void checkLengths(long[] unitPrices, int[] quantities, int length) {
+        if (unitPrices.length != length || quantities.length != length) {
+            throw new IllegalArgumentException("Arrays must have the same length");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ma.ensaf.ecommerce.common.money;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.module.SimpleModule;
+
+/**
+ * Module Jackson : Money s'écrit comme un nombre décimal (19.99, comme les prix Double actuels)
+ * et se lit depuis un nombre ou une chaîne ("19.99").
+ * Avec Spring Boot, il suffit de l'exposer comme bean pour qu'il soit enregistré dans l'ObjectMapper.
+ */
+public class MoneyModule extends SimpleModule {
+
+    public MoneyModule() {
+        super("MoneyModule");
+        addSerializer(Money.class, new MoneySerializer());
+        addDeserializer(Money.class, new MoneyDeserializer());
+    }
+
+    static class MoneySerializer extends ValueSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializationContext context) {
+            generator.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    static class MoneyDeserializer extends ValueDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.of(parser.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return Money.parse(parser.getString().trim());
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
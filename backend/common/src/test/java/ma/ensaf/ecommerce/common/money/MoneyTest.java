@@ -0,0 +1,114 @@
+package ma.ensaf.ecommerce.common.money;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void shouldAddExactlyWhereDoubleDrifts() {
+        // Given : 0.10 ajouté dix fois
+        Money total = Money.ZERO;
+        double drifting = 0;
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of(0.1));
+            drifting += 0.1;
+        }
+
+        // Then
+        assertThat(drifting).isNotEqualTo(1.0);
+        assertThat(total).isEqualTo(Money.parse("1.00"));
+        assertThat(Money.of(19.99).minorUnits()).isEqualTo(1999);
+        assertThat(Money.of(new BigDecimal("2.345"))).hasToString("2.35");
+        assertThat(Money.ofMinor(-5)).hasToString("-0.05");
+    }
+
+    @Test
+    void shouldRoundRatesHalfUpLikeBigDecimal() {
+        // When / Then : TVA 20 % sur des sous-totaux qui tombent sur une moitié de centime, positifs et négatifs
+        for (String amount : List.of("169.47", "0.025", "0.03", "-0.03", "99.99", "-12.34")) {
+            Money money = Money.parse(amount);
+            BigDecimal expected = money.toBigDecimal().multiply(new BigDecimal("0.20"))
+                .setScale(2, RoundingMode.HALF_UP);
+            assertThat(money.multiply(20, 100).toBigDecimal()).as(amount).isEqualByComparingTo(expected);
+        }
+        assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void shouldComputeOrderLinesInBulk() {
+        // Given
+        long[] unitPrices = {4999, 1950, 1};
+        int[] quantities = {3, 1, 7};
+        long[] totals = new long[3];
+
+        // When
+        MoneyLines.multiply(unitPrices, quantities, totals);
+
+        // Then
+        assertThat(totals).containsExactly(14997, 1950, 7);
+        assertThat(MoneyLines.sum(totals)).isEqualTo(16954);
+        assertThat(MoneyLines.sumOfProducts(unitPrices, quantities)).isEqualTo(16954);
+        assertThatIllegalArgumentException().isThrownBy(() -> MoneyLines.sumOfProducts(unitPrices, new int[2]));
+    }
+
+    @Test
+    void shouldRejectLinesThatCouldOverflowInsteadOfWrapping() {
+        // Given : une ligne au prix maximal de DECIMAL(10,2), et une quantité qui la ferait déborder
+        long[] unitPrices = {MoneyLines.MAX_UNIT_PRICE};
+        int[] tooMany = {1_000_000_000};
+
+        // When / Then
+        assertThatIllegalArgumentException().isThrownBy(() -> MoneyLines.sumOfProducts(unitPrices, tooMany));
+        assertThatIllegalArgumentException().isThrownBy(() -> MoneyLines.multiply(unitPrices, tooMany, new long[1]));
+        assertThatIllegalArgumentException().isThrownBy(() -> MoneyLines.sumOfProducts(new long[]{Long.MIN_VALUE}, new int[]{1}));
+        assertThatIllegalArgumentException().isThrownBy(() -> MoneyLines.sum(new long[]{Long.MAX_VALUE}));
+        assertThat(MoneyLines.sumOfProducts(unitPrices, new int[]{-MoneyLines.MAX_QUANTITY}))
+            .isEqualTo(-MoneyLines.MAX_LINE_TOTAL);
+    }
+
+    @Test
+    void shouldSumManyMaximalLinesExactlyOrFail() {
+        // Given : assez de lignes maximales pour dépasser un bloc
+        long[] unitPrices = new long[2_000];
+        int[] quantities = new int[2_000];
+        Arrays.fill(unitPrices, MoneyLines.MAX_UNIT_PRICE);
+        Arrays.fill(quantities, 1_000);
+
+        // When / Then : le total est exact tant qu'il tient dans un long...
+        assertThat(MoneyLines.sumOfProducts(unitPrices, quantities))
+            .isEqualTo(BigDecimal.valueOf(MoneyLines.MAX_UNIT_PRICE).multiply(BigDecimal.valueOf(2_000_000)).longValueExact());
+
+        // ... et lève ArithmeticException au-delà, au lieu de repasser en négatif
+        Arrays.fill(quantities, MoneyLines.MAX_QUANTITY);
+        assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> MoneyLines.sumOfProducts(unitPrices, quantities));
+        long[] totals = new long[2_000];
+        Arrays.fill(totals, MoneyLines.MAX_LINE_TOTAL);
+        assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> MoneyLines.sum(totals));
+    }
+
+    @Test
+    void shouldConvertForJpaAndJackson() {
+        // Given
+        ObjectMapper mapper = JsonMapper.builder().addModule(new MoneyModule()).build();
+        MoneyAttributeConverter converter = new MoneyAttributeConverter();
+
+        // When / Then
+        assertThat(mapper.writeValueAsString(Money.parse("19.90"))).isEqualTo("19.90");
+        assertThat(mapper.readValue("19.9", Money.class)).isEqualTo(Money.ofMinor(1990));
+        assertThat(mapper.readValue("\"7\"", Money.class)).isEqualTo(Money.ofMinor(700));
+        assertThat(converter.convertToDatabaseColumn(Money.ofMinor(1999))).isEqualTo(new BigDecimal("19.99"));
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("19.99"))).isEqualTo(Money.ofMinor(1999));
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
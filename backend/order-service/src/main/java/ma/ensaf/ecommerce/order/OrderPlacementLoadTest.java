@@ -0,0 +1,160 @@
+package ma.ensaf.ecommerce.order;
+
+import ma.ensaf.ecommerce.common.money.Money;
+import ma.ensaf.ecommerce.order.catalogue.CatalogueProduct;
+import ma.ensaf.ecommerce.order.catalogue.InMemoryCatalogueClient;
+import ma.ensaf.ecommerce.order.dto.PlaceOrderRequest;
+import ma.ensaf.ecommerce.order.pricing.ShippingCalculator;
+import ma.ensaf.ecommerce.order.pricing.TaxCalculator;
+import ma.ensaf.ecommerce.order.repository.InMemoryOrderRepository;
+import ma.ensaf.ecommerce.order.sequence.InMemorySequenceBlockSource;
+import ma.ensaf.ecommerce.order.sequence.OrderNumberGenerator;
+import ma.ensaf.ecommerce.order.service.OrderPlacementService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test de charge local du placement de commandes.
+ *
+ * N clients en boucle fermée (threads virtuels) placent des commandes de plusieurs lignes pendant
+ * la durée demandée. Le catalogue est en mémoire, avec une latence simulée par appel (lecture en lot,
+ * réservation) : on mesure le débit en commandes par seconde, les latences p50 / p99 et les refus
+ * (stock épuisé : le stock initial est choisi pour ne pas l'être).
+ *
+ * Usage : OrderPlacementLoadTest [clients=50,200,1000] [duration=10] [products=1000] [lines=5] [latency=2]
+ * (latency en millisecondes par appel catalogue)
+ */
+public class OrderPlacementLoadTest {
+
+    record Result(int clients, long orders, long rejected, double seconds, long p50Micros, long p99Micros) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = {50, 200, 1000};
+        int duration = 10;
+        int products = 1000;
+        int lines = 5;
+        int latency = 2;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "clients" -> clients = Arrays.stream(option[1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "duration" -> duration = Integer.parseInt(option[1]);
+                case "products" -> products = Integer.parseInt(option[1]);
+                case "lines" -> lines = Integer.parseInt(option[1]);
+                case "latency" -> latency = Integer.parseInt(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        InMemoryCatalogueClient catalogue = new InMemoryCatalogueClient(Duration.ofMillis(latency));
+        for (long id = 1; id <= products; id++) {
+            catalogue.add(new CatalogueProduct(id, "LOAD-" + id, "Product " + id, 1.0 + id % 1000, Integer.MAX_VALUE / 2, true));
+        }
+
+        List<Result> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            OrderPlacementService service = new OrderPlacementService(catalogue,
+                    TaxCalculator.flatRate(new BigDecimal("0.20")),
+                    ShippingCalculator.flatFee(Money.parse("30.00"), Money.parse("500.00")),
+                    new OrderNumberGenerator(new InMemorySequenceBlockSource()),
+                    new InMemoryOrderRepository(),
+                    executor);
+            // chauffe (JIT) avant les mesures
+            run(service, 50, 3, products, lines);
+            for (int n : clients) {
+                Result result = run(service, n, duration, products, lines);
+                System.out.println(format(result));
+                results.add(result);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%8s %12s %10s %10s %10s%n", "clients", "orders/s", "p50 (ms)", "p99 (ms)", "rejected");
+        results.forEach(result -> System.out.println(format(result)));
+    }
+
+    private static Result run(OrderPlacementService service, int clients, int seconds, int products, int lines)
+            throws InterruptedException {
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+        long[] window = new long[2];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int index = c;
+                executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    try {
+                        start.await();
+                        while (System.nanoTime() < window[1]) {
+                            PlaceOrderRequest request = randomOrder(index, products, lines);
+                            long begin = System.nanoTime();
+                            try {
+                                service.place(request);
+                            } catch (IllegalStateException e) {
+                                rejected.incrementAndGet();
+                                continue;
+                            }
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = System.nanoTime() - begin;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        latencies[index] = samples;
+                        counts[index] = count;
+                        done.countDown();
+                    }
+                });
+            }
+            window[0] = System.nanoTime();
+            window[1] = window[0] + Duration.ofSeconds(seconds).toNanos();
+            start.countDown();
+            done.await();
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(clients, total, rejected.get(), seconds, percentile(all, 0.50) / 1000, percentile(all, 0.99) / 1000);
+    }
+
+    private static PlaceOrderRequest randomOrder(int client, int products, int lines) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<PlaceOrderRequest.Line> orderLines = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            orderLines.add(new PlaceOrderRequest.Line(1L + random.nextInt(products), 1 + random.nextInt(3)));
+        }
+        return new PlaceOrderRequest((long) client, "Adresse " + client, "Adresse " + client, orderLines);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static String format(Result result) {
+        return String.format("%8d %12.0f %10.1f %10.1f %10d", result.clients(), result.orders() / result.seconds(),
+                result.p50Micros() / 1000.0, result.p99Micros() / 1000.0, result.rejected());
+    }
+}
@@ -0,0 +1,30 @@
+package ma.ensaf.ecommerce.order.catalogue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accès au service catalogue depuis le placement des commandes.
+ * Chaque méthode correspond à un seul appel distant, quel que soit le nombre de lignes de la commande.
+ */
+public interface CatalogueClient {
+
+    /**
+     * Produits de la commande en un seul appel (POST /api/v1/products/batch), indexés par id :
+     * les ids inconnus sont simplement absents de la map
+     */
+    Map<Long, CatalogueProduct> findProducts(Collection<Long> ids);
+
+    /**
+     * Réserve toutes les lignes ou aucune (POST /api/v1/products/stock/reserve)
+     *
+     * @return false si une ligne manque de stock : dans ce cas rien n'a été réservé
+     */
+    boolean reserve(List<StockLine> lines);
+
+    /**
+     * Annule une réservation acceptée (compensation si la suite du placement échoue)
+     */
+    void release(List<StockLine> lines);
+}
@@ -0,0 +1,11 @@
+package ma.ensaf.ecommerce.order.catalogue;
+
+/**
+ * Produit tel que renvoyé par POST /api/v1/products/batch du service catalogue (ProductSummary)
+ */
+public record CatalogueProduct(Long id, String sku, String name, Double price, Integer stockQuantity, boolean available) {
+
+    public boolean hasStock(int quantity) {
+        return stockQuantity != null && stockQuantity >= quantity;
+    }
+}
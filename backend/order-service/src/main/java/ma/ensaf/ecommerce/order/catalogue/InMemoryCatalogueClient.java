@@ -0,0 +1,133 @@
+package ma.ensaf.ecommerce.order.catalogue;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalogue en mémoire, pour les tests et le test de charge.
+ * Une latence optionnelle simule l'aller-retour réseau de chaque appel.
+ *
+ * La réservation d'une commande verrouille ses produits par id croissant (comme le service catalogue
+ * prend ses verrous de ligne), vérifie toutes les lignes puis décrémente : tout ou rien, sans interblocage.
+ */
+public class InMemoryCatalogueClient implements CatalogueClient {
+
+    private final Map<Long, Entry> products = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    public InMemoryCatalogueClient() {
+        this(Duration.ZERO);
+    }
+
+    public InMemoryCatalogueClient(Duration latency) {
+        this.latency = latency;
+    }
+
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final CatalogueProduct product;
+        private int stock;
+
+        private Entry(CatalogueProduct product) {
+            this.product = product;
+            this.stock = product.stockQuantity() == null ? 0 : product.stockQuantity();
+        }
+
+        private CatalogueProduct snapshot() {
+            lock.lock();
+            try {
+                return new CatalogueProduct(product.id(), product.sku(), product.name(), product.price(), stock, product.available());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void add(CatalogueProduct product) {
+        products.put(product.id(), new Entry(product));
+    }
+
+    public int stockOf(Long productId) {
+        return products.get(productId).snapshot().stockQuantity();
+    }
+
+    @Override
+    public Map<Long, CatalogueProduct> findProducts(Collection<Long> ids) {
+        simulateLatency();
+        Map<Long, CatalogueProduct> found = new HashMap<>();
+        for (Long id : ids) {
+            Entry entry = products.get(id);
+            if (entry != null) {
+                found.put(id, entry.snapshot());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean reserve(List<StockLine> lines) {
+        simulateLatency();
+        List<StockLine> sorted = lines.stream().sorted(Comparator.comparing(StockLine::productId)).toList();
+        List<Entry> entries = sorted.stream().map(line -> entry(line.productId())).toList();
+        int locked = 0;
+        try {
+            for (Entry entry : entries) {
+                entry.lock.lock();
+                locked++;
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i).stock < sorted.get(i).quantity()) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                entries.get(i).stock -= sorted.get(i).quantity();
+            }
+            return true;
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                entries.get(i).lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void release(List<StockLine> lines) {
+        simulateLatency();
+        for (StockLine line : lines) {
+            Entry entry = entry(line.productId());
+            entry.lock.lock();
+            try {
+                entry.stock += line.quantity();
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    private Entry entry(Long productId) {
+        Entry entry = products.get(productId);
+        if (entry == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return entry;
+    }
+
+    private void simulateLatency() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling the catalogue", e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ma.ensaf.ecommerce.order.catalogue;
+
+/**
+ * Quantité d'un produit à réserver ou à remettre en stock
+ */
+public record StockLine(Long productId, int quantity) {
+}
@@ -0,0 +1,12 @@
+package ma.ensaf.ecommerce.order.dto;
+
+import java.util.List;
+
+/**
+ * Commande à placer : les prix ne viennent pas du client, ils sont lus dans le catalogue
+ */
+public record PlaceOrderRequest(Long userId, String shippingAddress, String billingAddress, List<Line> lines) {
+
+    public record Line(Long productId, int quantity) {
+    }
+}
@@ -0,0 +1,98 @@
+package ma.ensaf.ecommerce.order.model;
+
+import lombok.*;
+import ma.ensaf.ecommerce.common.money.Money;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commande d'un utilisateur : totalAmount = somme des lignes + frais de livraison + taxes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Order {
+
+    private Long id;
+
+    private String orderNumber;
+
+    private Long userId;
+
+    @Builder.Default
+    private OrderStatus status = OrderStatus.CREATED;
+
+    @Builder.Default
+    private List<OrderItem> items = new ArrayList<>();
+
+    @Builder.Default
+    private Money totalAmount = Money.ZERO;
+
+    @Builder.Default
+    private Money shippingAmount = Money.ZERO;
+
+    @Builder.Default
+    private Money taxAmount = Money.ZERO;
+
+    private String shippingAddress;
+
+    private String billingAddress;
+
+    private LocalDateTime orderedAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Somme des prix totaux des lignes, hors livraison et taxes
+     */
+    public Money getSubtotal() {
+        return subtotalOf(items);
+    }
+
+    /**
+     * Somme des prix totaux de lignes, en centimes (sans Money intermédiaire)
+     */
+    public static Money subtotalOf(List<OrderItem> items) {
+        long subtotal = 0;
+        for (OrderItem item : items) {
+            subtotal = Math.addExact(subtotal, item.getTotalPrice().minorUnits());
+        }
+        return Money.ofMinor(subtotal);
+    }
+
+    /**
+     * Recalcule totalAmount à partir des lignes, de la livraison et des taxes
+     */
+    public Money calculateTotalAmount() {
+        if (items.isEmpty()) {
+            throw new IllegalStateException("An order must contain at least one item");
+        }
+        this.totalAmount = getSubtotal().plus(shippingAmount).plus(taxAmount);
+        return totalAmount;
+    }
+
+    /**
+     * Passe au statut suivant, si le workflow le permet
+     */
+    public void transitionTo(OrderStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new IllegalStateException("Invalid status transition: " + status + " -> " + next);
+        }
+        this.status = next;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Vérifie que la commande peut encore être modifiée (pas encore payée)
+     */
+    public void checkModifiable() {
+        if (!status.isModifiable()) {
+            throw new IllegalStateException("Order " + orderNumber + " can no longer be modified (" + status + ")");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ma.ensaf.ecommerce.order.model;
+
+import lombok.*;
+import ma.ensaf.ecommerce.common.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de commande : nom et prix unitaire sont figés au moment de la commande
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItem {
+
+    private Long id;
+
+    private Long orderId;
+
+    private Long productId;
+
+    private String productName;
+
+    private Integer quantity;
+
+    private Money unitPrice;
+
+    private Money totalPrice;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Crée une ligne et calcule son prix total (prix unitaire x quantité)
+     */
+    public static OrderItem of(Long productId, String productName, int quantity, Money unitPrice) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (unitPrice == null || unitPrice.isNegative()) {
+            throw new IllegalArgumentException("Unit price must be positive");
+        }
+        return OrderItem.builder()
+                .productId(productId)
+                .productName(productName)
+                .quantity(quantity)
+                .unitPrice(unitPrice)
+                .totalPrice(unitPrice.times(quantity))
+                .build();
+    }
+}
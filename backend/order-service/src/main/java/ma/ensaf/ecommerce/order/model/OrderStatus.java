@@ -0,0 +1,44 @@
+package ma.ensaf.ecommerce.order.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Workflow d'une commande :
+ * CREATED → VALIDATED → PAYMENT_PENDING → PAID → SHIPPED → DELIVERED,
+ * annulation possible tant que la commande n'est pas payée
+ */
+public enum OrderStatus {
+    CREATED,
+    VALIDATED,
+    PAYMENT_PENDING,
+    PAID,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    /**
+     * Statuts atteignables directement depuis celui-ci
+     */
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case CREATED -> EnumSet.of(VALIDATED, CANCELLED);
+            case VALIDATED -> EnumSet.of(PAYMENT_PENDING, CANCELLED);
+            case PAYMENT_PENDING -> EnumSet.of(PAID, CANCELLED);
+            case PAID -> EnumSet.of(SHIPPED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return nextStatuses().contains(next);
+    }
+
+    /**
+     * Une commande payée (ou au-delà) ne peut plus être modifiée
+     */
+    public boolean isModifiable() {
+        return this == CREATED || this == VALIDATED || this == PAYMENT_PENDING;
+    }
+}
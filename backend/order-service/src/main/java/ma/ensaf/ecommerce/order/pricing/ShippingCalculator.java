@@ -0,0 +1,24 @@
+package ma.ensaf.ecommerce.order.pricing;
+
+import ma.ensaf.ecommerce.common.money.Money;
+import ma.ensaf.ecommerce.order.model.Order;
+import ma.ensaf.ecommerce.order.model.OrderItem;
+
+import java.util.List;
+
+/**
+ * Calcul des frais de livraison d'une commande à partir de ses lignes déjà valorisées
+ */
+@FunctionalInterface
+public interface ShippingCalculator {
+
+    Money shippingFor(List<OrderItem> items, String shippingAddress);
+
+    /**
+     * Forfait, offert à partir d'un sous-total de {@code freeFrom}
+     */
+    static ShippingCalculator flatFee(Money fee, Money freeFrom) {
+        return (items, shippingAddress) ->
+                Order.subtotalOf(items).isGreaterThanOrEqualTo(freeFrom) ? Money.ZERO : fee;
+    }
+}
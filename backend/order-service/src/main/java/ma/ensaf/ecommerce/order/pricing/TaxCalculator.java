@@ -0,0 +1,29 @@
+package ma.ensaf.ecommerce.order.pricing;
+
+import ma.ensaf.ecommerce.common.money.Money;
+import ma.ensaf.ecommerce.order.model.Order;
+import ma.ensaf.ecommerce.order.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Calcul des taxes d'une commande à partir de ses lignes déjà valorisées
+ */
+@FunctionalInterface
+public interface TaxCalculator {
+
+    Money taxFor(List<OrderItem> items, String shippingAddress);
+
+    /**
+     * Taux unique appliqué au sous-total (ex. 0.20 pour une TVA à 20 %), arrondi au centime.
+     * Le taux est converti une fois en fraction (20 / 100) : le calcul par commande reste en centimes.
+     */
+    static TaxCalculator flatRate(BigDecimal rate) {
+        BigDecimal exact = rate.stripTrailingZeros();
+        long numerator = exact.scale() <= 0 ? exact.longValueExact() : exact.unscaledValue().longValueExact();
+        long denominator = exact.scale() <= 0 ? 1 : BigInteger.TEN.pow(exact.scale()).longValueExact();
+        return (items, shippingAddress) -> Order.subtotalOf(items).multiply(numerator, denominator);
+    }
+}
@@ -0,0 +1,45 @@
+package ma.ensaf.ecommerce.order.repository;
+
+import ma.ensaf.ecommerce.order.model.Order;
+import ma.ensaf.ecommerce.order.model.OrderItem;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commandes en mémoire, indexées par numéro (tests, test de charge)
+ */
+public class InMemoryOrderRepository implements OrderRepository {
+
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong();
+    private final AtomicLong itemIds = new AtomicLong();
+
+    @Override
+    public Order save(Order order) {
+        if (order.getId() == null) {
+            order.setId(orderIds.incrementAndGet());
+        }
+        for (OrderItem item : order.getItems()) {
+            if (item.getId() == null) {
+                item.setId(itemIds.incrementAndGet());
+            }
+            item.setOrderId(order.getId());
+        }
+        if (orders.putIfAbsent(order.getOrderNumber(), order) != null && orders.get(order.getOrderNumber()) != order) {
+            throw new IllegalStateException("Duplicate order number: " + order.getOrderNumber());
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<Order> findByOrderNumber(String orderNumber) {
+        return Optional.ofNullable(orders.get(orderNumber));
+    }
+
+    public int count() {
+        return orders.size();
+    }
+}
@@ -0,0 +1,15 @@
+package ma.ensaf.ecommerce.order.repository;
+
+import ma.ensaf.ecommerce.order.model.Order;
+
+import java.util.Optional;
+
+public interface OrderRepository {
+
+    /**
+     * Enregistre la commande et ses lignes, et leur attribue un id
+     */
+    Order save(Order order);
+
+    Optional<Order> findByOrderNumber(String orderNumber);
+}
@@ -0,0 +1,18 @@
+package ma.ensaf.ecommerce.order.sequence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Séquences en mémoire (tests, test de charge) : repartent de 1 à chaque démarrage
+ */
+public class InMemorySequenceBlockSource implements SequenceBlockSource {
+
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    @Override
+    public long allocate(String name, int blockSize) {
+        return sequences.computeIfAbsent(name, key -> new AtomicLong(1)).getAndAdd(blockSize);
+    }
+}
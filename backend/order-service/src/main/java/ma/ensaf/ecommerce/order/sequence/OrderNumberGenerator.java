@@ -0,0 +1,72 @@
+package ma.ensaf.ecommerce.order.sequence;
+
+import java.time.Clock;
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numéros de commande "ORD-2025-00001", par année.
+ *
+ * Les valeurs sont prises dans un bloc réservé d'un coup auprès de la {@link SequenceBlockSource}
+ * (un aller-retour en base tous les {@code blockSize} numéros) : dans le bloc, un simple
+ * getAndIncrement, sans verrou. Seul le rechargement d'un bloc épuisé est verrouillé.
+ * Les numéros restants d'un bloc sont perdus à l'arrêt : les numéros sont uniques et croissants
+ * par nœud, mais pas forcément contigus.
+ */
+public class OrderNumberGenerator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private static final String SEQUENCE_PREFIX = "order_number_";
+
+    private final SequenceBlockSource source;
+    private final int blockSize;
+    private final Clock clock;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = new Block(0, new AtomicLong(), 0);
+
+    private record Block(int year, AtomicLong next, long end) {
+    }
+
+    public OrderNumberGenerator(SequenceBlockSource source) {
+        this(source, DEFAULT_BLOCK_SIZE, Clock.systemDefaultZone());
+    }
+
+    public OrderNumberGenerator(SequenceBlockSource source, int blockSize, Clock clock) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.source = source;
+        this.blockSize = blockSize;
+        this.clock = clock;
+    }
+
+    public String next() {
+        int year = Year.now(clock).getValue();
+        while (true) {
+            Block current = block;
+            // un thread encore sur l'année précédente (passage à minuit) prend le bloc de la nouvelle année
+            if (current.year() >= year) {
+                long value = current.next().getAndIncrement();
+                if (value < current.end()) {
+                    return "ORD-%d-%05d".formatted(current.year(), value);
+                }
+            }
+            refill(current, Math.max(year, current.year()));
+        }
+    }
+
+    private void refill(Block exhausted, int year) {
+        refillLock.lock();
+        try {
+            // un autre thread a peut-être déjà rechargé pendant l'attente du verrou
+            if (block == exhausted) {
+                long first = source.allocate(SEQUENCE_PREFIX + year, blockSize);
+                block = new Block(year, new AtomicLong(first), first + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+}
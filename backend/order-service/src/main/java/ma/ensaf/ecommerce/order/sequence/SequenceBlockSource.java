@@ -0,0 +1,18 @@
+package ma.ensaf.ecommerce.order.sequence;
+
+/**
+ * Source persistante de séquences, interrogée une fois par bloc et non une fois par valeur.
+ * En base : un {@code UPDATE sequences SET next_value = next_value + :blockSize WHERE name = :name}
+ * suivi de la lecture de l'ancienne valeur, dans sa propre transaction.
+ */
+@FunctionalInterface
+public interface SequenceBlockSource {
+
+    /**
+     * Réserve {@code blockSize} valeurs consécutives de la séquence {@code name}
+     * (créée à 1 si elle n'existe pas encore)
+     *
+     * @return la première valeur du bloc
+     */
+    long allocate(String name, int blockSize);
+}
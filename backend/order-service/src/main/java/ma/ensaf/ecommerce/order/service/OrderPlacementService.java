@@ -0,0 +1,156 @@
+package ma.ensaf.ecommerce.order.service;
+
+import ma.ensaf.ecommerce.common.money.Money;
+import ma.ensaf.ecommerce.order.catalogue.CatalogueClient;
+import ma.ensaf.ecommerce.order.catalogue.CatalogueProduct;
+import ma.ensaf.ecommerce.order.catalogue.StockLine;
+import ma.ensaf.ecommerce.order.dto.PlaceOrderRequest;
+import ma.ensaf.ecommerce.order.model.Order;
+import ma.ensaf.ecommerce.order.model.OrderItem;
+import ma.ensaf.ecommerce.order.model.OrderStatus;
+import ma.ensaf.ecommerce.order.pricing.ShippingCalculator;
+import ma.ensaf.ecommerce.order.pricing.TaxCalculator;
+import ma.ensaf.ecommerce.order.repository.OrderRepository;
+import ma.ensaf.ecommerce.order.sequence.OrderNumberGenerator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Placement d'une commande, en un nombre d'appels distants fixe quel que soit le nombre de lignes :
+ * 1. un seul appel catalogue pour lire (et donc valider et valoriser) tous les produits
+ * 2. en parallèle sur l'executor : la réservation de tout le stock (tout ou rien), les taxes et la livraison,
+ *    qui ne dépendent que des lignes valorisées
+ * 3. numéro de commande pris dans un bloc déjà réservé (pas d'aller-retour en base par commande), totaux, enregistrement
+ *
+ * Si une étape échoue après une réservation acceptée, la réservation est annulée avant de propager l'erreur.
+ */
+public class OrderPlacementService {
+
+    private final CatalogueClient catalogue;
+    private final TaxCalculator taxCalculator;
+    private final ShippingCalculator shippingCalculator;
+    private final OrderNumberGenerator orderNumbers;
+    private final OrderRepository orderRepository;
+    private final Executor executor;
+
+    public OrderPlacementService(CatalogueClient catalogue, TaxCalculator taxCalculator,
+                                 ShippingCalculator shippingCalculator, OrderNumberGenerator orderNumbers,
+                                 OrderRepository orderRepository, Executor executor) {
+        this.catalogue = catalogue;
+        this.taxCalculator = taxCalculator;
+        this.shippingCalculator = shippingCalculator;
+        this.orderNumbers = orderNumbers;
+        this.orderRepository = orderRepository;
+        this.executor = executor;
+    }
+
+    /**
+     * Valide, valorise, réserve et enregistre la commande (statut VALIDATED)
+     *
+     * @throws IllegalArgumentException commande invalide ou produit inconnu
+     * @throws IllegalStateException    produit indisponible ou stock insuffisant (rien n'est alors réservé)
+     */
+    public Order place(PlaceOrderRequest request) {
+        Map<Long, Integer> quantities = quantitiesByProduct(request);
+
+        Map<Long, CatalogueProduct> products = catalogue.findProducts(quantities.keySet());
+        List<OrderItem> items = new ArrayList<>(quantities.size());
+        List<StockLine> stockLines = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Long productId = line.getKey();
+            int quantity = line.getValue();
+            CatalogueProduct product = products.get(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found with id: " + productId);
+            }
+            if (!product.available() || product.price() == null) {
+                throw new IllegalStateException("Product not available: " + productId);
+            }
+            // contrôle sur la lecture, pour refuser sans appel de réservation ; la réservation reste l'arbitre
+            if (!product.hasStock(quantity)) {
+                throw new IllegalStateException("Insufficient stock for product: " + productId);
+            }
+            items.add(OrderItem.of(productId, product.name(), quantity, Money.of(product.price())));
+            stockLines.add(new StockLine(productId, quantity));
+        }
+
+        CompletableFuture<Boolean> reservation = CompletableFuture.supplyAsync(() -> catalogue.reserve(stockLines), executor);
+        CompletableFuture<Money> tax = CompletableFuture.supplyAsync(
+                () -> taxCalculator.taxFor(items, request.shippingAddress()), executor);
+        CompletableFuture<Money> shipping = CompletableFuture.supplyAsync(
+                () -> shippingCalculator.shippingFor(items, request.shippingAddress()), executor);
+
+        if (!join(reservation)) {
+            throw new IllegalStateException("Insufficient stock for order");
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Order order = Order.builder()
+                    .orderNumber(orderNumbers.next())
+                    .userId(request.userId())
+                    .items(items)
+                    .taxAmount(join(tax))
+                    .shippingAmount(join(shipping))
+                    .shippingAddress(request.shippingAddress())
+                    .billingAddress(request.billingAddress())
+                    .orderedAt(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            items.forEach(item -> item.setCreatedAt(now));
+            order.calculateTotalAmount();
+            order.transitionTo(OrderStatus.VALIDATED);
+            return orderRepository.save(order);
+        } catch (RuntimeException e) {
+            catalogue.release(stockLines);
+            throw e;
+        }
+    }
+
+    // quantités cumulées par produit, dans l'ordre de la commande
+    private static Map<Long, Integer> quantitiesByProduct(PlaceOrderRequest request) {
+        if (request.userId() == null) {
+            throw new IllegalArgumentException("User id is required");
+        }
+        if (isBlank(request.shippingAddress()) || isBlank(request.billingAddress())) {
+            throw new IllegalArgumentException("Shipping and billing addresses are required");
+        }
+        if (request.lines() == null || request.lines().isEmpty()) {
+            throw new IllegalArgumentException("An order must contain at least one item");
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (PlaceOrderRequest.Line line : request.lines()) {
+            if (line.productId() == null) {
+                throw new IllegalArgumentException("Product id is required");
+            }
+            if (line.quantity() < 1) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // attend une étape parallèle et propage son exception d'origine
+    private static <T> T join(CompletableFuture<T> step) {
+        try {
+            return step.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
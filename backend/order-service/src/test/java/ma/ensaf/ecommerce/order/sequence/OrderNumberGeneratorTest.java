@@ -0,0 +1,73 @@
+package ma.ensaf.ecommerce.order.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderNumberGeneratorTest {
+
+    private static final Clock CLOCK_2025 = Clock.fixed(Instant.parse("2025-06-01T10:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void shouldFormatNumbersPerYearFromBlocks() {
+        // Given : une source qui compte ses allers-retours
+        AtomicInteger allocations = new AtomicInteger();
+        InMemorySequenceBlockSource sequences = new InMemorySequenceBlockSource();
+        OrderNumberGenerator generator = new OrderNumberGenerator((name, blockSize) -> {
+            allocations.incrementAndGet();
+            return sequences.allocate(name, blockSize);
+        }, 10, CLOCK_2025);
+
+        // When
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            numbers.add(generator.next());
+        }
+
+        // Then : 25 numéros consécutifs, 3 blocs de 10
+        assertThat(numbers.getFirst()).isEqualTo("ORD-2025-00001");
+        assertThat(numbers.getLast()).isEqualTo("ORD-2025-00025");
+        assertThat(allocations).hasValue(3);
+    }
+
+    @Test
+    void shouldNeverHandOutTheSameNumberTwiceUnderContention() throws Exception {
+        // Given : deux générateurs (deux nœuds) sur la même séquence, petits blocs pour forcer les rechargements
+        InMemorySequenceBlockSource sequences = new InMemorySequenceBlockSource();
+        List<OrderNumberGenerator> generators = List.of(
+            new OrderNumberGenerator(sequences, 7, CLOCK_2025),
+            new OrderNumberGenerator(sequences, 7, CLOCK_2025));
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        List<Future<?>> tasks = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                OrderNumberGenerator generator = generators.get(t % 2);
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        assertThat(numbers.add(generator.next())).isTrue();
+                    }
+                }));
+            }
+        }
+
+        // Then
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        assertThat(numbers).hasSize(8000);
+    }
+}
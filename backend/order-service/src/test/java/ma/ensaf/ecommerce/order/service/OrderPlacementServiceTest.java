@@ -0,0 +1,174 @@
+package ma.ensaf.ecommerce.order.service;
+
+import ma.ensaf.ecommerce.common.money.Money;
+import ma.ensaf.ecommerce.order.catalogue.CatalogueClient;
+import ma.ensaf.ecommerce.order.catalogue.CatalogueProduct;
+import ma.ensaf.ecommerce.order.catalogue.InMemoryCatalogueClient;
+import ma.ensaf.ecommerce.order.catalogue.StockLine;
+import ma.ensaf.ecommerce.order.dto.PlaceOrderRequest;
+import ma.ensaf.ecommerce.order.dto.PlaceOrderRequest.Line;
+import ma.ensaf.ecommerce.order.model.Order;
+import ma.ensaf.ecommerce.order.model.OrderItem;
+import ma.ensaf.ecommerce.order.model.OrderStatus;
+import ma.ensaf.ecommerce.order.pricing.ShippingCalculator;
+import ma.ensaf.ecommerce.order.pricing.TaxCalculator;
+import ma.ensaf.ecommerce.order.repository.InMemoryOrderRepository;
+import ma.ensaf.ecommerce.order.sequence.InMemorySequenceBlockSource;
+import ma.ensaf.ecommerce.order.sequence.OrderNumberGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderPlacementServiceTest {
+
+    private static final TaxCalculator TVA_20 = TaxCalculator.flatRate(new BigDecimal("0.20"));
+    private static final ShippingCalculator SHIPPING = ShippingCalculator.flatFee(Money.parse("30.00"), Money.parse("500.00"));
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final InMemoryCatalogueClient catalogue = new InMemoryCatalogueClient();
+    private final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+
+    @AfterEach
+    void closeExecutor() {
+        executor.close();
+    }
+
+    @Test
+    void shouldPriceReserveAndNumberTheWholeOrderInOneCatalogueLookup() {
+        // Given
+        catalogue.add(new CatalogueProduct(1L, "KB-001", "Keyboard", 49.99, 10, true));
+        catalogue.add(new CatalogueProduct(2L, "MS-001", "Mouse", 19.5, 10, true));
+        CountingCatalogue counting = new CountingCatalogue(catalogue);
+
+        // When : le même produit sur deux lignes est cumulé
+        Order order = service(counting).place(request(new Line(1L, 2), new Line(2L, 1), new Line(1L, 1)));
+
+        // Then
+        assertThat(counting.lookups).hasValue(1);
+        assertThat(order.getOrderNumber()).matches("ORD-\\d{4}-00001");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.VALIDATED);
+        assertThat(order.getItems()).extracting(OrderItem::getProductName, OrderItem::getQuantity, OrderItem::getTotalPrice)
+            .containsExactly(tuple("Keyboard", 3, Money.parse("149.97")), tuple("Mouse", 1, Money.parse("19.50")));
+        assertThat(order.getTaxAmount()).isEqualTo(Money.parse("33.89"));
+        assertThat(order.getShippingAmount()).isEqualTo(Money.parse("30.00"));
+        assertThat(order.getTotalAmount()).isEqualTo(Money.parse("233.36"));
+        assertThat(catalogue.stockOf(1L)).isEqualTo(7);
+        assertThat(orders.findByOrderNumber(order.getOrderNumber())).contains(order);
+    }
+
+    @Test
+    void shouldReserveNothingWhenOneLineIsShort() {
+        // Given : la lecture voit assez de stock, mais une autre commande le prend avant la réservation
+        catalogue.add(new CatalogueProduct(1L, "KB-001", "Keyboard", 49.99, 10, true));
+        catalogue.add(new CatalogueProduct(2L, "MS-001", "Mouse", 19.5, 1, true));
+        CatalogueClient racing = new CountingCatalogue(catalogue) {
+            @Override
+            public boolean reserve(List<StockLine> lines) {
+                catalogue.reserve(List.of(new StockLine(2L, 1)));
+                return super.reserve(lines);
+            }
+        };
+
+        // When / Then
+        assertThatIllegalStateException().isThrownBy(() -> service(racing).place(request(new Line(1L, 2), new Line(2L, 1))))
+            .withMessage("Insufficient stock for order");
+        assertThat(catalogue.stockOf(1L)).isEqualTo(10);
+        assertThat(orders.count()).isZero();
+    }
+
+    @Test
+    void shouldReleaseReservationWhenAParallelStepFails() {
+        // Given
+        catalogue.add(new CatalogueProduct(1L, "KB-001", "Keyboard", 49.99, 10, true));
+        TaxCalculator failing = (items, address) -> {
+            throw new IllegalStateException("Tax service unavailable");
+        };
+        OrderPlacementService service = new OrderPlacementService(catalogue, failing, SHIPPING,
+            new OrderNumberGenerator(new InMemorySequenceBlockSource()), orders, executor);
+
+        // When / Then
+        assertThatIllegalStateException().isThrownBy(() -> service.place(request(new Line(1L, 4))))
+            .withMessage("Tax service unavailable");
+        assertThat(catalogue.stockOf(1L)).isEqualTo(10);
+    }
+
+    @Test
+    void shouldRejectInvalidOrdersBeforeReserving() {
+        // Given
+        catalogue.add(new CatalogueProduct(1L, "KB-001", "Keyboard", 49.99, 1, true));
+        catalogue.add(new CatalogueProduct(2L, "OLD-001", "Discontinued", 9.99, 5, false));
+        OrderPlacementService service = service(catalogue);
+
+        // When / Then
+        assertThatIllegalArgumentException().isThrownBy(() -> service.place(request()))
+            .withMessage("An order must contain at least one item");
+        assertThatIllegalArgumentException().isThrownBy(() -> service.place(request(new Line(1L, 0))));
+        assertThatIllegalArgumentException().isThrownBy(() -> service.place(request(new Line(99L, 1))))
+            .withMessage("Product not found with id: 99");
+        assertThatIllegalStateException().isThrownBy(() -> service.place(request(new Line(2L, 1))))
+            .withMessage("Product not available: 2");
+        assertThatIllegalStateException().isThrownBy(() -> service.place(request(new Line(1L, 2))))
+            .withMessage("Insufficient stock for product: 1");
+        assertThat(catalogue.stockOf(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFollowTheStatusWorkflow() {
+        // Given
+        catalogue.add(new CatalogueProduct(1L, "KB-001", "Keyboard", 49.99, 10, true));
+        Order order = service(catalogue).place(request(new Line(1L, 1)));
+
+        // When
+        order.transitionTo(OrderStatus.PAYMENT_PENDING);
+        order.transitionTo(OrderStatus.PAID);
+
+        // Then : une commande payée n'est plus modifiable ni annulable
+        assertThatIllegalStateException().isThrownBy(order::checkModifiable);
+        assertThatIllegalStateException().isThrownBy(() -> order.transitionTo(OrderStatus.CANCELLED))
+            .withMessage("Invalid status transition: PAID -> CANCELLED");
+    }
+
+    private OrderPlacementService service(CatalogueClient client) {
+        return new OrderPlacementService(client, TVA_20, SHIPPING,
+            new OrderNumberGenerator(new InMemorySequenceBlockSource()), orders, executor);
+    }
+
+    private static PlaceOrderRequest request(Line... lines) {
+        return new PlaceOrderRequest(42L, "1 rue de Fès, Fès", "1 rue de Fès, Fès", List.of(lines));
+    }
+
+    private static class CountingCatalogue implements CatalogueClient {
+
+        private final CatalogueClient delegate;
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        private CountingCatalogue(CatalogueClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<Long, CatalogueProduct> findProducts(Collection<Long> ids) {
+            lookups.incrementAndGet();
+            return delegate.findProducts(ids);
+        }
+
+        @Override
+        public boolean reserve(List<StockLine> lines) {
+            return delegate.reserve(lines);
+        }
+
+        @Override
+        public void release(List<StockLine> lines) {
+            delegate.release(lines);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Table de hachage à adressage ouvert (sondage linéaire) avec des clés long primitives.
+ *
+ * - get : sans verrou et sans boxing, lit la table courante (référence volatile)
+ * - put / remove : sérialisés par un verrou ; une suppression laisse une "pierre tombale"
+ *   pour ne pas casser les chaînes de sondage des lectures en cours
+ * - agrandissement : une nouvelle table est construite puis publiée d'un coup,
+ *   les lectures en cours finissent sur l'ancienne
+ * - forEach / values : parcours faiblement cohérent de la table courante, sans verrou
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Entrée immuable : la clé et la valeur sont publiées ensemble par l'écriture volatile du slot
+     */
+    private static final class Entry<V> {
+        final long key;
+        final V value;
+
+        Entry(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final Entry<?> TOMBSTONE = new Entry<>(0L, null);
+
+    private static final class Table<V> {
+        final AtomicReferenceArray<Entry<V>> slots;
+        final int mask;
+
+        Table(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+    }
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Table<V> table = new Table<>(MIN_CAPACITY);
+    private volatile int size;
+    // slots non vides (entrées + pierres tombales), modifié sous verrou
+    private int used;
+
+    public V get(long key) {
+        Table<V> t = table;
+        for (int i = indexFor(key, t.mask); ; i = (i + 1) & t.mask) {
+            Entry<V> entry = t.slots.get(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != TOMBSTONE && entry.key == key) {
+                return entry.value;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associe {@code value} (non null) à {@code key} et retourne l'ancienne valeur, ou null
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("The value must not be null");
+        }
+        writeLock.lock();
+        try {
+            // on garde au moins la moitié des slots vides : les sondages restent courts et se terminent toujours
+            if ((used + 1) * 2 > table.slots.length()) {
+                rehash();
+            }
+            Table<V> t = table;
+            int tombstone = -1;
+            for (int i = indexFor(key, t.mask); ; i = (i + 1) & t.mask) {
+                Entry<V> entry = t.slots.get(i);
+                if (entry == null) {
+                    if (tombstone >= 0) {
+                        i = tombstone;
+                    } else {
+                        used++;
+                    }
+                    t.slots.set(i, new Entry<>(key, value));
+                    size++;
+                    return null;
+                }
+                if (entry == TOMBSTONE) {
+                    if (tombstone < 0) {
+                        tombstone = i;
+                    }
+                } else if (entry.key == key) {
+                    t.slots.set(i, new Entry<>(key, value));
+                    return entry.value;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Supprime {@code key} et retourne la valeur supprimée, ou null si la clé est absente
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        writeLock.lock();
+        try {
+            Table<V> t = table;
+            for (int i = indexFor(key, t.mask); ; i = (i + 1) & t.mask) {
+                Entry<V> entry = t.slots.get(i);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry != TOMBSTONE && entry.key == key) {
+                    t.slots.set(i, (Entry<V>) TOMBSTONE);
+                    size--;
+                    return entry.value;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Parcourt les valeurs de la table courante, sans verrou.
+     * Faiblement cohérent : une écriture concurrente peut être vue ou non.
+     */
+    public void forEach(Consumer<? super V> action) {
+        Table<V> t = table;
+        for (int i = 0; i < t.slots.length(); i++) {
+            Entry<V> entry = t.slots.get(i);
+            if (entry != null && entry != TOMBSTONE) {
+                action.accept(entry.value);
+            }
+        }
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        forEach(values::add);
+        return values;
+    }
+
+    /**
+     * Reconstruit la table (plus grande si nécessaire) sans les pierres tombales. Appelé sous verrou.
+     */
+    private void rehash() {
+        Table<V> old = table;
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 4 - 1) << 1);
+        Table<V> resized = new Table<>(capacity);
+        for (int i = 0; i < old.slots.length(); i++) {
+            Entry<V> entry = old.slots.get(i);
+            if (entry != null && entry != TOMBSTONE) {
+                int j = indexFor(entry.key, resized.mask);
+                while (resized.slots.get(j) != null) {
+                    j = (j + 1) & resized.mask;
+                }
+                resized.slots.set(j, entry);
+            }
+        }
+        used = size;
+        table = resized;
+    }
+
+    private static int indexFor(long key, int mask) {
+        // mélange multiplicatif (Fibonacci) : des ids consécutifs se répartissent sur toute la table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,45 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Variante thread-safe de Repository, utilisable sous charge concurrente.
+ *
+ * - les ids viennent d'une séquence AtomicLong (pas de Long boxé incrémenté)
+ * - le stockage est une ConcurrentLongMap : findById / delete prennent un long primitif,
+ *   les lectures se font sans verrou
+ * - findAll retourne un instantané faiblement cohérent, construit sans verrou global
+ */
+public class ConcurrentRepository<T extends IEntity> {
+
+    private final ConcurrentLongMap<T> storage = new ConcurrentLongMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    public T save(T entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("The entity must not be null");
+        }
+        long id = nextId.getAndIncrement();
+        entity.setId(id);
+        storage.put(id, entity);
+        return entity;
+    }
+
+    public Optional<T> findById(long id) {
+        return Optional.ofNullable(storage.get(id));
+    }
+
+    public boolean delete(long id) {
+        return storage.remove(id) != null;
+    }
+
+    public List<T> findAll() {
+        return storage.values();
+    }
+
+    public long count() {
+        return storage.size();
+    }
+}
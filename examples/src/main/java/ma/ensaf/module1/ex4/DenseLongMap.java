@@ -0,0 +1,289 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Map id -> valeur rangée dans un tableau indexé par l'id, pour des ids attribués par une séquence à partir de 1.
+ *
+ * - get / put / remove : accès direct au slot, sans hachage, sans nœud d'entrée ni Long boxé par élément
+ * - une suppression laisse le slot vide (null) : les ids ne sont jamais réattribués
+ * - parcours dans l'ordre des ids ; le spliterator de values() coupe la plage de slots en deux moitiés égales,
+ *   ce qui donne des tâches de même taille à un parallelStream (au lieu de copier les valeurs dans une liste)
+ *
+ * La mémoire suit le plus grand id rangé et non le nombre d'entrées : à réserver aux ids denses.
+ * Pas thread-safe : un parcours (même parallèle) suppose qu'aucune écriture n'a lieu pendant ce temps,
+ * sinon il lève ConcurrentModificationException.
+ */
+public class DenseLongMap<V> extends AbstractMap<Long, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    // taille maximale d'un tableau sur la plupart des JVM
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private Object[] slots = new Object[0];
+    // slots [0, limit) : au-delà, tous les slots sont vides
+    private int limit;
+    private int size;
+    // incrémenté à chaque ajout ou suppression d'entrée, pour détecter une écriture pendant un parcours
+    private int modCount;
+
+    public V get(long id) {
+        return id >= 1 && id <= limit ? value(slots[(int) (id - 1)]) : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long id ? get(id.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associe {@code value} (non null) à {@code id} et retourne l'ancienne valeur, ou null
+     */
+    public V put(long id, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("The value must not be null");
+        }
+        if (id < 1 || id > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Id out of range: " + id);
+        }
+        int slot = (int) (id - 1);
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, (int) Math.min(MAX_CAPACITY, Math.max(slot + 1L, Math.max(MIN_CAPACITY, 2L * slots.length))));
+        }
+        V previous = value(slots[slot]);
+        slots[slot] = value;
+        if (previous == null) {
+            size++;
+            modCount++;
+            limit = Math.max(limit, slot + 1);
+        }
+        return previous;
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    public V remove(long id) {
+        V previous = get(id);
+        if (previous != null) {
+            slots[(int) (id - 1)] = null;
+            size--;
+            modCount++;
+            while (limit > 0 && slots[limit - 1] == null) {
+                limit--;
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long id ? remove(id.longValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0, limit, null);
+        limit = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Long, V>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Entry<Long, V> element(int slot, V value) {
+                        return new SimpleImmutableEntry<>(slot + 1L, value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    V element(int slot, V value) {
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return new SlotSpliterator(0, -1, 0);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V value(Object slot) {
+        return (V) slot;
+    }
+
+    /**
+     * Parcours des slots non vides dans l'ordre des ids ; remove() supprime l'entrée courante
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int next = advance(0);
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        abstract E element(int slot, V value);
+
+        @Override
+        public boolean hasNext() {
+            return next < limit;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= limit) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = advance(next + 1);
+            return element(current, value(slots[current]));
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            DenseLongMap.this.remove(current + 1L);
+            current = -1;
+            expectedModCount = modCount;
+        }
+
+        private int advance(int from) {
+            while (from < limit && slots[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+
+    /**
+     * Spliterator sur la plage de slots [index, fence), liée au premier usage (comme celui d'ArrayList) :
+     * trySplit en donne la première moitié, quel que soit le nombre de slots vides
+     */
+    private final class SlotSpliterator implements Spliterator<V> {
+        private int index;
+        // -1 tant que la plage n'est pas liée
+        private int fence;
+        private int expectedModCount;
+
+        SlotSpliterator(int origin, int fence, int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int fence() {
+            if (fence < 0) {
+                expectedModCount = modCount;
+                fence = limit;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int high = fence();
+            int low = index;
+            int middle = (low + high) >>> 1;
+            if (low >= middle) {
+                return null;
+            }
+            index = middle;
+            return new SlotSpliterator(low, middle, expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> action) {
+            Objects.requireNonNull(action);
+            int high = fence();
+            while (index < high) {
+                V value = value(slots[index++]);
+                if (value != null) {
+                    action.accept(value);
+                    checkForComodification();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super V> action) {
+            Objects.requireNonNull(action);
+            Object[] values = slots;
+            int high = fence();
+            for (int i = index; i < high; i++) {
+                V value = value(values[i]);
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+            index = high;
+            checkForComodification();
+        }
+
+        // taille exacte si aucun slot n'est vide, sinon la plage au prorata du remplissage
+        @Override
+        public long estimateSize() {
+            long slotCount = fence() - index;
+            return size == limit || limit == 0 ? slotCount : slotCount * size / limit;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL
+                    | (size == limit ? Spliterator.SIZED | Spliterator.SUBSIZED : 0);
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
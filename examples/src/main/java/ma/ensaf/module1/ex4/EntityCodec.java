@@ -0,0 +1,16 @@
+package ma.ensaf.module1.ex4;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodage binaire d'une entité pour le journal et les snapshots d'un Repository.
+ * L'id n'est pas à encoder : il est stocké à côté par le journal.
+ */
+public interface EntityCodec<T> {
+
+    void encode(T entity, DataOutput out) throws IOException;
+
+    T decode(DataInput in) throws IOException;
+}
@@ -0,0 +1,52 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Index par égalité : clé extraite -> entités ayant cette clé (recherche en O(1)), dans l'ordre où elles ont été
+ * ajoutées. Une clé d'un autre type que celles de l'index ne trouve rien.
+ */
+class HashIndex<T, K> implements Index<T> {
+
+    private final String name;
+    private final Function<? super T, ? extends K> keyExtractor;
+    private final Map<K, Set<T>> entries = new HashMap<>();
+
+    HashIndex(String name, Function<? super T, ? extends K> keyExtractor) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public void add(T entity) {
+        K key = keyExtractor.apply(entity);
+        if (key != null) {
+            // ensemble par identité, dans l'ordre des save (donc des ids)
+            entries.computeIfAbsent(key, k -> new InsertionOrderedIdentitySet<>()).add(entity);
+        }
+    }
+
+    @Override
+    public void remove(T entity) {
+        K key = keyExtractor.apply(entity);
+        Set<T> matches = key == null ? null : entries.get(key);
+        if (matches != null) {
+            matches.remove(entity);
+            if (matches.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public List<T> find(Object key) {
+        Set<T> matches = entries.get(key);
+        return matches == null ? List.of() : new ArrayList<>(matches);
+    }
+
+    @Override
+    public List<T> findRange(Object from, Object to) {
+        throw new IllegalArgumentException("Index " + name + " does not support range queries");
+    }
+}
@@ -0,0 +1,17 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.List;
+
+/**
+ * Index secondaire d'un Repository, tenu à jour à chaque save / delete
+ */
+interface Index<T> {
+
+    void add(T entity);
+
+    void remove(T entity);
+
+    List<T> find(Object key);
+
+    List<T> findRange(Object from, Object to);
+}
@@ -0,0 +1,60 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.*;
+
+/**
+ * Ensemble par identité (==, comme IdentityHashMap) parcouru dans l'ordre d'insertion, comme un LinkedHashSet.
+ *
+ * Sert de groupe d'entités aux index : l'identité garde distinctes deux entités égales au sens equals, et ne
+ * dépend pas d'un hashCode calculé sur des champs modifiables ; l'ordre d'insertion rend les résultats reproductibles.
+ */
+class InsertionOrderedIdentitySet<E> extends AbstractSet<E> {
+
+    /**
+     * Clé d'identité d'un élément
+     */
+    private static final class Ref {
+        private final Object element;
+
+        Ref(Object element) {
+            this.element = element;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Ref ref && ref.element == element;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(element);
+        }
+    }
+
+    private final Map<Ref, E> elements = new LinkedHashMap<>();
+
+    @Override
+    public boolean add(E element) {
+        return elements.putIfAbsent(new Ref(element), element) == null;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return elements.remove(new Ref(element)) != null;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return elements.containsKey(new Ref(element));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements.values().iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+}
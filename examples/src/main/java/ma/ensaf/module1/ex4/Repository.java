@@ -1,10 +1,32 @@
 package ma.ensaf.module1.ex4;
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Repository<T extends IEntity> {
-        private Map<Long, T> storage = new HashMap<>();
+        // entités rangées par id dans un tableau (ids denses, attribués à partir de 1)
+        private DenseLongMap<T> storage = new DenseLongMap<>();
         private Long nextId = 1L;
+        // index secondaires par nom, tenus à jour par save / delete
+        private Map<String, Index<T>> indexes = new HashMap<>();
+        // persistance optionnelle (journal + snapshots), null pour un repository purement en mémoire
+        private RepositoryJournal<T> journal;
+
+        public Repository() {
+        }
+
+        /**
+         * Repository persistant : l'état est rechargé depuis le journal, puis chaque save / delete y est écrit
+         */
+        public Repository(RepositoryJournal<T> journal) {
+            this.journal = journal;
+            this.nextId = journal.recover(storage);
+        }
 
         public T save(T entity) {
             if (entity == null) {
@@ -12,7 +34,14 @@ public class Repository<T extends IEntity> {
             }
             Long id = nextId++;
             entity.setId(id);
+            if (journal != null) {
+                journal.logSave(id, entity);
+            }
             storage.put(id, entity);
+            for (Index<T> index : indexes.values()) {
+                index.add(entity);
+            }
+            checkpointIfNeeded();
             return entity;
         }
 
@@ -21,11 +50,18 @@ public class Repository<T extends IEntity> {
         }
 
         public boolean delete(Long id) {
-            if (storage.containsKey(id)) {
-                storage.remove(id);
-                return true;
+            if (!storage.containsKey(id)) {
+                return false;
+            }
+            if (journal != null) {
+                journal.logDelete(id);
+            }
+            T entity = storage.remove(id);
+            for (Index<T> index : indexes.values()) {
+                index.remove(entity);
             }
-            return false;
+            checkpointIfNeeded();
+            return true;
         }
         public List<T> findAll(){
             return new ArrayList<>(storage.values());
@@ -33,5 +69,106 @@ public class Repository<T extends IEntity> {
         public long count() {
             return storage.size();
         }
+
+        /**
+         * Flux des entités dans l'ordre des ids, lu directement dans le stockage (sans la copie de findAll)
+         */
+        public Stream<T> stream() {
+            return StreamSupport.stream(storage.values().spliterator(), false);
+        }
+
+        /**
+         * Flux parallèle : le stockage est découpé en plages d'ids de même taille, une par tâche fork-join.
+         * Aucune écriture ne doit avoir lieu pendant le parcours.
+         */
+        public Stream<T> parallelStream() {
+            return StreamSupport.stream(storage.values().spliterator(), true);
+        }
+
+        /**
+         * Nombre d'entités qui vérifient {@code predicate}, en un parcours du stockage
+         */
+        public long count(Predicate<? super T> predicate) {
+            long count = 0;
+            for (T entity : storage.values()) {
+                if (predicate.test(entity)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Agrégat des entités par un Collector (ex. Collectors.averagingInt(Student::getAge)),
+         * accumulé entité par entité sans liste intermédiaire
+         */
+        public <A, R> R aggregate(Collector<? super T, A, R> collector) {
+            A container = collector.supplier().get();
+            BiConsumer<A, ? super T> accumulator = collector.accumulator();
+            for (T entity : storage.values()) {
+                accumulator.accept(container, entity);
+            }
+            return collector.finisher().apply(container);
+        }
+
+        /**
+         * Déclare un index par égalité sur la clé extraite de chaque entité (ex. Student::getName).
+         * La clé est calculée au save : elle ne doit pas changer tant que l'entité est dans le repository.
+         */
+        public <K> void addHashIndex(String name, Function<? super T, ? extends K> keyExtractor) {
+            addIndex(name, new HashIndex<>(name, keyExtractor));
+        }
+
+        /**
+         * Déclare un index trié, qui permet aussi findRange (ex. Student::getAge)
+         */
+        public <K extends Comparable<? super K>> void addSortedIndex(String name, Function<? super T, ? extends K> keyExtractor) {
+            addIndex(name, new SortedIndex<>(name, keyExtractor));
+        }
+
+        /**
+         * Entités dont la clé d'index vaut {@code key}, sans parcourir tout le repository
+         */
+        public List<T> findBy(String indexName, Object key) {
+            return index(indexName).find(key);
+        }
+
+        /**
+         * Entités dont la clé d'index est entre {@code from} et {@code to} (incluses), triées par clé.
+         * Nécessite un index trié.
+         */
+        public <K extends Comparable<? super K>> List<T> findRange(String indexName, K from, K to) {
+            return index(indexName).findRange(from, to);
+        }
+
+        /**
+         * Écrit un snapshot et repart d'un journal vide (sans effet pour un repository en mémoire)
+         */
+        public void checkpoint() {
+            if (journal != null) {
+                journal.checkpoint(storage, nextId);
+            }
+        }
+
+        private void checkpointIfNeeded() {
+            if (journal != null && journal.needsCheckpoint()) {
+                journal.checkpoint(storage, nextId);
+            }
+        }
+
+        private void addIndex(String name, Index<T> index) {
+            if (indexes.containsKey(name)) {
+                throw new IllegalArgumentException("Index " + name + " already exists");
+            }
+            storage.values().forEach(index::add);
+            indexes.put(name, index);
+        }
+
+        private Index<T> index(String name) {
+            Index<T> index = indexes.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown index: " + name);
+            }
+            return index;
+        }
 }
- 
\ No newline at end of file
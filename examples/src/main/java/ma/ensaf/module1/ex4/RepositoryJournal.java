@@ -0,0 +1,219 @@
+package ma.ensaf.module1.ex4;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Persistance optionnelle d'un Repository : journal (WAL) + snapshots, dans un répertoire.
+ *
+ * - chaque save / delete est ajouté à wal-N.log avant d'être appliqué en mémoire
+ * - quand le journal dépasse {@code snapshotThresholdBytes}, un snapshot compact snapshot-N+1.bin
+ *   est écrit et un nouveau journal wal-N+1.log commence ; les anciens fichiers sont supprimés
+ * - au démarrage : chargement du dernier snapshot, puis rejeu des journaux qui le suivent
+ *
+ * Durabilité : avec {@code syncIntervalMillis = 0}, save / delete ne rendent la main qu'une fois
+ * l'enregistrement sur disque (fsync partagés entre threads concurrents). Avec un intervalle > 0,
+ * un fsync est fait en tâche de fond à cet intervalle : débit bien plus élevé, au prix de la perte
+ * possible des dernières millisecondes d'écriture en cas de crash.
+ */
+public class RepositoryJournal<T extends IEntity> implements Closeable {
+
+    public record Options(long syncIntervalMillis, long snapshotThresholdBytes) {
+        public static final Options DEFAULT = new Options(0, 64L * 1024 * 1024);
+    }
+
+    private final Path directory;
+    private final EntityCodec<T> codec;
+    private final Options options;
+    private final ScheduledExecutorService syncScheduler;
+    private volatile WriteAheadLog wal;
+    private long generation;
+
+    private RepositoryJournal(Path directory, EntityCodec<T> codec, Options options) {
+        this.directory = directory;
+        this.codec = codec;
+        this.options = options;
+        if (options.syncIntervalMillis() > 0) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "repository-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            syncScheduler = null;
+        }
+    }
+
+    public static <T extends IEntity> RepositoryJournal<T> open(Path directory, EntityCodec<T> codec) {
+        return open(directory, codec, Options.DEFAULT);
+    }
+
+    public static <T extends IEntity> RepositoryJournal<T> open(Path directory, EntityCodec<T> codec, Options options) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RepositoryJournal<>(directory, codec, options);
+    }
+
+    /**
+     * Recharge l'état persisté dans {@code storage} et retourne le prochain id à attribuer.
+     * Appelé une seule fois, par le constructeur de Repository.
+     */
+    long recover(Map<Long, T> storage) {
+        try {
+            long snapshotGeneration = latestGeneration("snapshot-", ".bin");
+            long nextId = 1;
+            if (snapshotGeneration >= 0) {
+                nextId = SnapshotFile.read(snapshotFile(snapshotGeneration), this::decode, (id, entity) -> {
+                    entity.setId(id);
+                    storage.put(id, entity);
+                });
+            }
+            generation = Math.max(snapshotGeneration, 0);
+            long[] maxId = {nextId - 1};
+            for (long walGeneration : generations("wal-", ".log")) {
+                if (walGeneration < generation) {
+                    continue;
+                }
+                WriteAheadLog.replay(walFile(walGeneration), entry -> {
+                    if (entry.type() == WriteAheadLog.SAVE) {
+                        T entity = decode(entry.payload());
+                        entity.setId(entry.id());
+                        storage.put(entry.id(), entity);
+                        maxId[0] = Math.max(maxId[0], entry.id());
+                    } else {
+                        storage.remove(entry.id());
+                    }
+                });
+                generation = walGeneration;
+            }
+            wal = WriteAheadLog.open(walFile(generation));
+            if (syncScheduler != null) {
+                syncScheduler.scheduleWithFixedDelay(this::syncQuietly,
+                        options.syncIntervalMillis(), options.syncIntervalMillis(), TimeUnit.MILLISECONDS);
+            }
+            return maxId[0] + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void logSave(long id, T entity) {
+        append(WriteAheadLog.SAVE, id, encode(entity));
+    }
+
+    void logDelete(long id) {
+        append(WriteAheadLog.DELETE, id, new byte[0]);
+    }
+
+    boolean needsCheckpoint() {
+        return wal.size() > options.snapshotThresholdBytes();
+    }
+
+    /**
+     * Écrit un snapshot de {@code storage} et repart d'un journal vide.
+     * Le nouveau journal est ouvert avant le snapshot : si le snapshot n'aboutit pas,
+     * la relecture repartira du snapshot précédent et rejouera les deux journaux.
+     */
+    void checkpoint(Map<Long, T> storage, long nextId) {
+        try {
+            long next = generation + 1;
+            wal.close();
+            wal = WriteAheadLog.open(walFile(next));
+            SnapshotFile.write(snapshotFile(next), storage, nextId, this::encode);
+            generation = next;
+            for (long old : generations("wal-", ".log")) {
+                if (old < generation) {
+                    Files.deleteIfExists(walFile(old));
+                }
+            }
+            for (long old : generations("snapshot-", ".bin")) {
+                if (old < generation) {
+                    Files.deleteIfExists(snapshotFile(old));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Force l'écriture sur disque de tout ce qui a été journalisé
+     */
+    public void sync() {
+        wal.sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+        }
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    private void append(byte type, long id, byte[] payload) {
+        long position = wal.append(type, id, payload);
+        if (syncScheduler == null) {
+            wal.awaitDurable(position);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            wal.sync();
+        } catch (UncheckedIOException e) {
+            // le prochain sync (ou close) réessaiera
+        }
+    }
+
+    private byte[] encode(T entity) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            codec.encode(entity, new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private T decode(byte[] payload) throws IOException {
+        return codec.decode(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    private Path walFile(long generation) {
+        return directory.resolve("wal-" + generation + ".log");
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private long latestGeneration(String prefix, String suffix) throws IOException {
+        List<Long> generations = generations(prefix, suffix);
+        return generations.isEmpty() ? -1 : generations.getLast();
+    }
+
+    private List<Long> generations(String prefix, String suffix) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> generations.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        generations.sort(null);
+        return generations;
+    }
+}
@@ -0,0 +1,97 @@
+package ma.ensaf.module1.ex4;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Mesure du débit d'écriture et du temps de relecture d'un Repository persistant, à 1M d'entités.
+ *
+ * Usage : java ma.ensaf.module1.ex4.RepositoryJournalBenchmark [nombre d'entités] [répertoire]
+ *
+ * - écriture avec fsync en tâche de fond (intervalle de 10 ms), puis un snapshot
+ * - écriture avec fsync avant chaque retour (group commit) depuis plusieurs threads, sur un volume réduit
+ * - relecture : dernier snapshot + fin du journal
+ */
+public class RepositoryJournalBenchmark {
+
+    private static final int SYNC_WRITERS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path root = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("repository-journal");
+        try {
+            intervalSync(root.resolve("interval"), count);
+            groupCommit(root.resolve("group-commit"), Math.max(1, count / 100));
+        } finally {
+            deleteRecursively(root);
+        }
+    }
+
+    private static void intervalSync(Path directory, int count) throws IOException {
+        RepositoryJournal.Options options = new RepositoryJournal.Options(10, 64L * 1024 * 1024);
+        long start = System.nanoTime();
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec(), options)) {
+            Repository<Student> repository = new Repository<>(journal);
+            for (int i = 0; i < count; i++) {
+                repository.save(new Student("student-" + i, 18 + i % 10));
+            }
+            repository.checkpoint();
+            // une fin de journal à rejouer après le snapshot
+            for (long id = 1; id <= count / 10; id++) {
+                repository.delete(id);
+            }
+        }
+        report("save+delete, fsync toutes les 10 ms", count + count / 10, start);
+        recover(directory, count - count / 10);
+    }
+
+    private static void groupCommit(Path directory, int count) throws Exception {
+        long start = System.nanoTime();
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            // Repository n'est pas thread-safe : on mesure ici le journal seul, partagé par plusieurs threads,
+            // pour voir l'effet du group commit (un fsync couvre les enregistrements de tous les threads en attente)
+            journal.recover(new HashMap<>());
+            try (ExecutorService executor = Executors.newFixedThreadPool(SYNC_WRITERS)) {
+                for (int t = 0; t < SYNC_WRITERS; t++) {
+                    int offset = t;
+                    executor.submit(() -> {
+                        for (long id = offset; id < count; id += SYNC_WRITERS) {
+                            journal.logSave(id + 1, new Student("student-" + id, 20));
+                        }
+                    });
+                }
+            }
+        }
+        report("save, fsync avant retour, " + SYNC_WRITERS + " threads", count, start);
+    }
+
+    private static void recover(Path directory, int expected) throws IOException {
+        long start = System.nanoTime();
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+            if (repository.count() != expected) {
+                throw new IllegalStateException("Recovered " + repository.count() + " entities, expected " + expected);
+            }
+            report("relecture snapshot + journal", repository.count(), start);
+        }
+    }
+
+    private static void report(String label, long operations, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-45s %,10d ops en %6.2f s  (%,.0f ops/s)%n", label, operations, seconds, operations / seconds);
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Parcours d'un Repository en mémoire de 10M d'entités : copie findAll() puis stream, contre stream() / parallelStream()
+ * lus directement dans le stockage, et les agrégats count(Predicate) / aggregate.
+ *
+ * Usage : java -Xmx4g ma.ensaf.module1.ex4.RepositoryStreamBenchmark [nombre d'entités] [tours]
+ *
+ * Le gain du flux parallèle dépend des cœurs disponibles (parallélisme du pool commun affiché au début) :
+ * il n'apparaît qu'à partir de quelques cœurs, 8 ou plus pour le viser franchement.
+ */
+public class RepositoryStreamBenchmark {
+
+    private static final String[] NAMES = {"Alice", "Bob", "Charlie", "David", "Emma", "Farid", "Ghita", "Hamza"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.printf("%,d entités, parallélisme du pool commun : %d%n", count, ForkJoinPool.getCommonPoolParallelism());
+
+        Repository<Student> repository = new Repository<>();
+        for (int i = 0; i < count; i++) {
+            repository.save(new Student(NAMES[i % NAMES.length], 18 + i % 10));
+        }
+        // des trous dans les ids, comme après des suppressions
+        for (long id = 1; id <= count; id += 10) {
+            repository.delete(id);
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            System.out.println("Tour " + round);
+            measure("findAll().stream().filter().count()", () -> repository.findAll().stream().filter(s -> s.getAge() > 22).count());
+            measure("stream().filter().count()", () -> repository.stream().filter(s -> s.getAge() > 22).count());
+            measure("count(Predicate)", () -> repository.count(s -> s.getAge() > 22));
+            measure("findAll().parallelStream().filter().count()", () -> repository.findAll().parallelStream().filter(s -> s.getAge() > 22).count());
+            measure("parallelStream().filter().count()", () -> repository.parallelStream().filter(s -> s.getAge() > 22).count());
+            measure("parallelStream().mapToLong().sum()", () -> repository.parallelStream().mapToLong(Student::getAge).sum());
+            measure("aggregate(summingLong)", () -> repository.aggregate(Collectors.summingLong(Student::getAge)));
+        }
+    }
+
+    private static void measure(String label, LongSupplier scan) {
+        long start = System.nanoTime();
+        long result = scan.getAsLong();
+        System.out.printf("  %-45s %8.1f ms  (résultat %,d)%n", label, (System.nanoTime() - start) / 1e6, result);
+    }
+}
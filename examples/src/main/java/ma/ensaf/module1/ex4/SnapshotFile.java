@@ -0,0 +1,101 @@
+package ma.ensaf.module1.ex4;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Snapshot compact de l'état d'un Repository, écrit et relu par fichiers mappés en mémoire.
+ *
+ * Format : [int magic][int version][long nextId][long count] puis pour chaque entité [long id][int taille][payload].
+ * Le fichier est écrit dans un fichier temporaire puis renommé : un snapshot présent est toujours complet.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x52455053; // "REPS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 2;
+    // taille des régions mappées : on remappe plus loin quand une région est pleine
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+    private SnapshotFile() {
+    }
+
+    interface Encoder<T> {
+        byte[] encode(T entity) throws IOException;
+    }
+
+    interface Decoder<T> {
+        T decode(byte[] payload) throws IOException;
+    }
+
+    static <T> void write(Path file, Map<Long, T> entities, long nextId, Encoder<T> encoder) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long regionStart = 0;
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+            region.position(HEADER_SIZE);
+            for (Map.Entry<Long, T> entry : entities.entrySet()) {
+                byte[] payload = encoder.encode(entry.getValue());
+                int size = Long.BYTES + Integer.BYTES + payload.length;
+                if (region.remaining() < size) {
+                    region.force();
+                    regionStart += region.position();
+                    region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_SIZE, size));
+                }
+                region.putLong(entry.getKey()).putInt(payload.length).put(payload);
+            }
+            long end = regionStart + region.position();
+            region.force();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(nextId).putLong(entities.size());
+            header.force();
+            channel.truncate(end);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Relit le snapshot, passe chaque entité à {@code consumer} et retourne le nextId enregistré
+     */
+    static <T> long read(Path file, Decoder<T> decoder, BiConsumer<Long, T> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a repository snapshot: " + file);
+            }
+            long nextId = header.getLong();
+            long count = header.getLong();
+            long regionStart = HEADER_SIZE;
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(REGION_SIZE, size - regionStart));
+            for (long i = 0; i < count; i++) {
+                if (region.remaining() < Long.BYTES + Integer.BYTES
+                        || region.remaining() < Long.BYTES + Integer.BYTES + region.getInt(region.position() + Long.BYTES)) {
+                    // l'enregistrement déborde de la région : on remappe à partir de son début
+                    regionStart += region.position();
+                    long length = Math.min(Math.max(REGION_SIZE, Long.BYTES + Integer.BYTES + peekLength(channel, regionStart)),
+                            size - regionStart);
+                    region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, length);
+                }
+                long id = region.getLong();
+                byte[] payload = new byte[region.getInt()];
+                region.get(payload);
+                consumer.accept(id, decoder.decode(payload));
+            }
+            return nextId;
+        }
+    }
+
+    private static int peekLength(FileChannel channel, long recordStart) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, recordStart + Long.BYTES, Integer.BYTES).getInt();
+    }
+}
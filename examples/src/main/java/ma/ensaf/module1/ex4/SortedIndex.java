@@ -0,0 +1,79 @@
+package ma.ensaf.module1.ex4;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Index trié : permet en plus les recherches par plage de clés (en O(log n + résultats)).
+ * Les entités d'une même clé sont rendues dans l'ordre où elles ont été ajoutées.
+ */
+class SortedIndex<T, K extends Comparable<? super K>> implements Index<T> {
+
+    private final String name;
+    private final Function<? super T, ? extends K> keyExtractor;
+    private final NavigableMap<K, Set<T>> entries = new TreeMap<>();
+
+    SortedIndex(String name, Function<? super T, ? extends K> keyExtractor) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public void add(T entity) {
+        K key = keyExtractor.apply(entity);
+        if (key != null) {
+            entries.computeIfAbsent(key, k -> new InsertionOrderedIdentitySet<>()).add(entity);
+        }
+    }
+
+    @Override
+    public void remove(T entity) {
+        K key = keyExtractor.apply(entity);
+        Set<T> matches = key == null ? null : entries.get(key);
+        if (matches != null) {
+            matches.remove(entity);
+            if (matches.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public List<T> find(Object key) {
+        if (key == null) {
+            return List.of();
+        }
+        try {
+            Set<T> matches = entries.get(key);
+            return matches == null ? List.of() : new ArrayList<>(matches);
+        } catch (ClassCastException e) {
+            throw keyTypeMismatch("Key " + key, e);
+        }
+    }
+
+    /**
+     * Entités dont la clé est comprise entre {@code from} et {@code to} (bornes incluses), triées par clé
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> findRange(Object from, Object to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Range bounds of index " + name + " must not be null");
+        }
+        List<T> result = new ArrayList<>();
+        // K est effacé à l'exécution : le type des bornes n'est vérifié qu'à la comparaison
+        try {
+            if (((K) from).compareTo((K) to) > 0) {
+                return result;
+            }
+            entries.subMap((K) from, true, (K) to, true).values().forEach(result::addAll);
+        } catch (ClassCastException e) {
+            throw keyTypeMismatch("Range [" + from + ", " + to + "]", e);
+        }
+        return result;
+    }
+
+    private IllegalArgumentException keyTypeMismatch(String keys, ClassCastException cause) {
+        return new IllegalArgumentException(keys + " does not match the key type of index " + name, cause);
+    }
+}
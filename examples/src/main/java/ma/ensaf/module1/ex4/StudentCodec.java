@@ -0,0 +1,23 @@
+package ma.ensaf.module1.ex4;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class StudentCodec implements EntityCodec<Student> {
+
+    @Override
+    public void encode(Student student, DataOutput out) throws IOException {
+        out.writeBoolean(student.getName() != null);
+        if (student.getName() != null) {
+            out.writeUTF(student.getName());
+        }
+        out.writeInt(student.getAge());
+    }
+
+    @Override
+    public Student decode(DataInput in) throws IOException {
+        String name = in.readBoolean() ? in.readUTF() : null;
+        return new Student(name, in.readInt());
+    }
+}
@@ -0,0 +1,224 @@
+package ma.ensaf.module1.ex4;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal binaire en ajout seul (append-only), écrit avec un FileChannel.
+ *
+ * Format d'un enregistrement : [int taille payload][byte type][long id][payload][int crc32c].
+ * Le CRC permet de détecter un enregistrement tronqué par un arrêt brutal : la relecture s'arrête là.
+ *
+ * Group commit : les enregistrements sont accumulés dans un tampon ; sync() vide le tampon puis fait
+ * un seul fsync pour tous les enregistrements ajoutés jusque-là. Pendant un fsync, les autres threads
+ * continuent à remplir le tampon, et ceux qui attendaient la durabilité sont couverts par le même fsync.
+ */
+class WriteAheadLog implements Closeable {
+
+    static final byte SAVE = 1;
+    static final byte DELETE = 2;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Enregistrement relu depuis le journal
+     */
+    record Entry(byte type, long id, byte[] payload) {
+    }
+
+    interface EntryConsumer {
+        void accept(Entry entry) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer idBytes = ByteBuffer.allocate(Long.BYTES);
+    // position logique (fichier + tampon) du dernier enregistrement ajouté, protégée par appendLock
+    private long appended;
+    private volatile long durable;
+
+    private WriteAheadLog(FileChannel channel, long size) {
+        this.channel = channel;
+        this.appended = size;
+        this.durable = size;
+    }
+
+    static WriteAheadLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        channel.position(size);
+        return new WriteAheadLog(channel, size);
+    }
+
+    /**
+     * Relit les enregistrements valides de {@code file} et tronque une éventuelle fin corrompue
+     */
+    static void replay(Path file, EntryConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES);
+            CRC32C checksum = new CRC32C();
+            long position = 0;
+            long size = channel.size();
+            while (position + HEADER_SIZE + Integer.BYTES <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                byte type = header.get();
+                long id = header.getLong();
+                if (length < 0 || position + HEADER_SIZE + length + Integer.BYTES > size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, position + HEADER_SIZE);
+                trailer.clear();
+                readFully(channel, trailer, position + HEADER_SIZE + length);
+                checksum.reset();
+                checksum.update(header.flip().position(Integer.BYTES));
+                checksum.update(payload.flip());
+                if ((int) checksum.getValue() != trailer.flip().getInt()) {
+                    break;
+                }
+                consumer.accept(new Entry(type, id, payload.array()));
+                position += HEADER_SIZE + length + Integer.BYTES;
+            }
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement au tampon et retourne sa position de fin,
+     * à passer à {@link #awaitDurable(long)} pour attendre qu'il soit sur disque
+     */
+    long append(byte type, long id, byte[] payload) {
+        int size = HEADER_SIZE + payload.length + Integer.BYTES;
+        appendLock.lock();
+        try {
+            if (buffer.remaining() < size) {
+                drain();
+            }
+            if (size > buffer.capacity()) {
+                ByteBuffer record = ByteBuffer.allocate(size);
+                writeRecord(record, type, id, payload);
+                record.flip();
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } else {
+                writeRecord(buffer, type, id, payload);
+            }
+            appended += size;
+            return appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Attend que tous les enregistrements jusqu'à {@code position} soient sur disque.
+     * Un seul thread fait le fsync, les autres en profitent (group commit).
+     */
+    void awaitDurable(long position) {
+        if (durable >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durable < position) {
+                doSync();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Écrit le tampon et fait un fsync de tout ce qui a été ajouté
+     */
+    void sync() {
+        syncLock.lock();
+        try {
+            doSync();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    long size() {
+        appendLock.lock();
+        try {
+            return appended;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private void doSync() {
+        long target;
+        appendLock.lock();
+        try {
+            drain();
+            target = appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+        if (target > durable) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            durable = target;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeRecord(ByteBuffer target, byte type, long id, byte[] payload) {
+        target.putInt(payload.length).put(type).putLong(id).put(payload);
+        crc.reset();
+        crc.update(type);
+        crc.update(idBytes.clear().putLong(0, id));
+        crc.update(payload);
+        target.putInt((int) crc.getValue());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+}
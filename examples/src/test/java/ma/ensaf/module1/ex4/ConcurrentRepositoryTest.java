@@ -0,0 +1,83 @@
+package ma.ensaf.module1.ex4;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConcurrentRepositoryTest {
+
+    private static final int THREADS = 16;
+    private static final int SAVES_PER_THREAD = 20_000;
+
+    @Test
+    void testSaveFindDelete() {
+        ConcurrentRepository<Student> repository = new ConcurrentRepository<>();
+        Student s1 = repository.save(new Student("s1", 20));
+        repository.save(new Student("s2", 21));
+
+        assertThat(s1.getId()).isEqualTo(1L);
+        assertThat(repository.findById(1L)).contains(s1);
+        assertThat(repository.delete(1L)).isTrue();
+        assertThat(repository.delete(1L)).isFalse();
+        assertThat(repository.findById(1L)).isEmpty();
+        assertThat(repository.count()).isEqualTo(1);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> repository.save(null))
+                .withMessage("The entity must not be null");
+    }
+
+    @Test
+    void testStressConcurrentSaveFindDelete() throws Exception {
+        // Arrange : plusieurs threads qui sauvegardent, relisent et suppriment en même temps
+        ConcurrentRepository<Student> repository = new ConcurrentRepository<>();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicInteger lostReads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SAVES_PER_THREAD; i++) {
+                    Student student = repository.save(new Student("s" + i, i));
+                    ids.add(student.getId());
+                    if (repository.findById(student.getId()).orElse(null) != student) {
+                        lostReads.incrementAndGet();
+                    }
+                    // chaque thread tente aussi de supprimer un id quelconque : un seul delete doit réussir par id
+                    long victim = ThreadLocalRandom.current().nextLong(1, student.getId() + 1);
+                    if (repository.delete(victim)) {
+                        deleted.incrementAndGet();
+                    }
+                    if (i % 1000 == 0) {
+                        assertThat(repository.findAll()).doesNotContainNull();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        int saved = THREADS * SAVES_PER_THREAD;
+        assertThat(ids).hasSize(saved);
+        assertThat(lostReads.get()).isLessThanOrEqualTo(deleted.get());
+        assertThat(repository.count()).isEqualTo(saved - deleted.get());
+        assertThat(repository.findAll()).hasSize(saved - deleted.get());
+        long present = ids.stream().filter(id -> repository.findById(id).isPresent()).count();
+        assertThat(present).isEqualTo(saved - deleted.get());
+    }
+}
@@ -0,0 +1,134 @@
+package ma.ensaf.module1.ex4;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RepositoryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReopenRecoversSavesAndDeletes() throws Exception {
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+            repository.save(new Student("s1", 20));
+            repository.save(new Student(null, 21));
+            repository.save(new Student("s3", 22));
+            repository.delete(1L);
+        }
+
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+
+            assertThat(repository.count()).isEqualTo(2);
+            assertThat(repository.findById(1L)).isEmpty();
+            assertThat(repository.findById(2L)).get().extracting(Student::getName, Student::getAge).containsExactly(null, 21);
+            assertThat(repository.findById(3L)).get().extracting(Student::getName, Student::getAge).containsExactly("s3", 22);
+            // les ids continuent après le dernier id journalisé
+            assertThat(repository.save(new Student("s4", 23)).getId()).isEqualTo(4L);
+        }
+    }
+
+    @Test
+    void testRecoverFromSnapshotAndJournalTail() throws Exception {
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+            for (int i = 0; i < 1000; i++) {
+                repository.save(new Student("s" + i, i));
+            }
+            repository.delete(1000L);
+            repository.checkpoint();
+            // après le snapshot : ces écritures ne sont que dans le nouveau journal
+            repository.delete(1L);
+            repository.save(new Student("tail", 99));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactlyInAnyOrder("snapshot-1.bin", "wal-1.log");
+        }
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+
+            assertThat(repository.count()).isEqualTo(999);
+            assertThat(repository.findById(1L)).isEmpty();
+            assertThat(repository.findById(1000L)).isEmpty();
+            assertThat(repository.findById(500L)).get().extracting(Student::getName).isEqualTo("s499");
+            assertThat(repository.findById(1001L)).get().extracting(Student::getName).isEqualTo("tail");
+            assertThat(repository.save(new Student("next", 1)).getId()).isEqualTo(1002L);
+        }
+    }
+
+    @Test
+    void testCheckpointWhenJournalExceedsThreshold() throws Exception {
+        RepositoryJournal.Options options = new RepositoryJournal.Options(0, 4 * 1024);
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec(), options)) {
+            Repository<Student> repository = new Repository<>(journal);
+            for (int i = 0; i < 1000; i++) {
+                repository.save(new Student("s" + i, i));
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            // un seul snapshot et un seul journal restent, les générations précédentes sont supprimées
+            assertThat(files.filter(file -> file.getFileName().toString().startsWith("snapshot-"))).hasSize(1);
+        }
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec(), options)) {
+            Repository<Student> repository = new Repository<>(journal);
+            assertThat(repository.count()).isEqualTo(1000);
+            assertThat(repository.findById(1000L)).get().extracting(Student::getName).isEqualTo("s999");
+        }
+    }
+
+    @Test
+    void testTornTailIsTruncated() throws Exception {
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+            repository.save(new Student("s1", 20));
+            repository.save(new Student("s2", 21));
+        }
+        // simule un crash au milieu de l'écriture du dernier enregistrement
+        Path wal = directory.resolve("wal-0.log");
+        long size = Files.size(wal);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+
+            assertThat(repository.count()).isEqualTo(1);
+            assertThat(repository.findById(2L)).isEmpty();
+            repository.save(new Student("s2bis", 21));
+        }
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            Repository<Student> repository = new Repository<>(journal);
+            // l'enregistrement ajouté après la troncature est bien relu
+            assertThat(repository.findAll()).extracting(Student::getName).containsExactlyInAnyOrder("s1", "s2bis");
+        }
+    }
+
+    @Test
+    void testIntervalSyncMode() throws Exception {
+        RepositoryJournal.Options options = new RepositoryJournal.Options(5, 64L * 1024 * 1024);
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec(), options)) {
+            Repository<Student> repository = new Repository<>(journal);
+            for (int i = 0; i < 10_000; i++) {
+                repository.save(new Student("s" + i, i));
+            }
+        }
+
+        try (RepositoryJournal<Student> journal = RepositoryJournal.open(directory, new StudentCodec())) {
+            assertThat(new Repository<>(journal).count()).isEqualTo(10_000);
+        }
+    }
+}
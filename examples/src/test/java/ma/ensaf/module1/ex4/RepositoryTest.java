@@ -2,6 +2,10 @@ package ma.ensaf.module1.ex4;
 
 import org.junit.jupiter.api.*;
 
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.*;
 
 class RepositoryTest {
@@ -63,6 +67,138 @@ class RepositoryTest {
         ;
     }
 
+    @Test
+    void testFindByHashIndex() {
+        // Arrange
+        studentRepository.addHashIndex("name", Student::getName);
+        studentRepository.save(new Student("s1", 30));
+
+        // Act
+        List<Student> result = studentRepository.findBy("name", "s1");
+
+        // Assert
+        assertThat(result).extracting(Student::getAge).containsExactlyInAnyOrder(20, 30);
+        assertThat(studentRepository.findBy("name", "unknown")).isEmpty();
+    }
+
+    @Test
+    void testIndexFollowsDelete() {
+        studentRepository.addHashIndex("name", Student::getName);
+        studentRepository.delete(1L);
+
+        assertThat(studentRepository.findBy("name", "s1")).isEmpty();
+        assertThat(studentRepository.findBy("name", "s2")).hasSize(1);
+    }
+
+    @Test
+    void testFindRangeBySortedIndex() {
+        // Arrange
+        studentRepository.addSortedIndex("age", Student::getAge);
+        studentRepository.save(new Student("s3", 25));
+        studentRepository.save(new Student("s4", 19));
+
+        // Act
+        List<Student> result = studentRepository.findRange("age", 20, 25);
+
+        // Assert
+        assertThat(result).extracting(Student::getName).containsExactly("s1", "s2", "s3");
+    }
+
+    @Test
+    void testIndexesKeepSaveOrderWithinAKey() {
+        // Arrange : assez d'entités de même clé pour que l'ordre d'un ensemble haché se voie
+        studentRepository.addHashIndex("name", Student::getName);
+        studentRepository.addSortedIndex("age", Student::getAge);
+        for (int i = 0; i < 50; i++) {
+            studentRepository.save(new Student("same", 40 + i % 2));
+        }
+        studentRepository.delete(10L);
+
+        // Act
+        List<Student> byName = studentRepository.findBy("name", "same");
+        List<Student> byAge = studentRepository.findRange("age", 40, 41);
+
+        // Assert : par ids croissants, par clé puis ids pour la plage
+        assertThat(byName).extracting(Student::getId).isSorted().hasSize(49);
+        assertThat(byAge.subList(0, 25)).allMatch(student -> student.getAge() == 40)
+                .extracting(Student::getId).isSorted();
+        assertThat(byAge.subList(25, 49)).allMatch(student -> student.getAge() == 41)
+                .extracting(Student::getId).isSorted();
+    }
+
+    @Test
+    void testSortedIndexRejectsKeysOfAnotherType() {
+        studentRepository.addSortedIndex("age", Student::getAge);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> studentRepository.findBy("age", "20"))
+                .withMessage("Key 20 does not match the key type of index age");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> studentRepository.findRange("age", "a", "z"))
+                .withMessageContaining("does not match the key type of index age");
+    }
+
+    @Test
+    void testUnknownIndex() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> studentRepository.findBy("missing", "s1"))
+                .withMessage("Unknown index: missing");
+        studentRepository.addHashIndex("name", Student::getName);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> studentRepository.findRange("name", "a", "z"));
+    }
+
+    @Test
+    void testStreamSkipsDeletedEntities() {
+        // Arrange
+        studentRepository.save(new Student("s3", 22));
+        studentRepository.delete(2L);
+
+        // Act
+        List<String> names = studentRepository.stream().map(Student::getName).toList();
+
+        // Assert : ordre des ids, sans l'entité supprimée
+        assertThat(names).containsExactly("s1", "s3");
+    }
+
+    @Test
+    void testParallelStreamMatchesSequentialScan() {
+        // Arrange : assez d'entités pour que le flux parallèle soit découpé, et des trous laissés par les suppressions
+        for (int i = 0; i < 10_000; i++) {
+            studentRepository.save(new Student("p" + i, i % 50));
+        }
+        for (long id = 1; id <= studentRepository.count(); id += 7) {
+            studentRepository.delete(id);
+        }
+        List<Student> all = studentRepository.findAll();
+
+        // Act
+        long sum = studentRepository.parallelStream().mapToLong(Student::getAge).sum();
+        List<Long> ids = studentRepository.parallelStream().map(Student::getId).toList();
+
+        // Assert
+        assertThat(sum).isEqualTo(all.stream().mapToLong(Student::getAge).sum());
+        assertThat(ids).isSorted().hasSize(all.size());
+    }
+
+    @Test
+    void testCountAndAggregate() {
+        // Arrange
+        studentRepository.save(new Student("s3", 25));
+
+        // Act / Assert
+        assertThat(studentRepository.count(student -> student.getAge() > 20)).isEqualTo(2);
+        assertThat(studentRepository.aggregate(Collectors.averagingInt(Student::getAge))).isEqualTo(22.0);
+        assertThat(studentRepository.aggregate(Collectors.groupingBy(student -> student.getAge() >= 21, Collectors.counting())))
+                .containsEntry(true, 2L).containsEntry(false, 1L);
+    }
+
+    @Test
+    void testStreamDetectsWritesDuringTraversal() {
+        assertThatExceptionOfType(ConcurrentModificationException.class)
+                .isThrownBy(() -> studentRepository.stream().forEach(student -> studentRepository.save(new Student("s", 1))));
+    }
+
     @Test
     @DisplayName("Test avec un nom personnalisé")
     void testWithCustomName() {
@@ -0,0 +1,125 @@
+package ma.ensaf.catalogue.cache;
+
+import ma.ensaf.catalogue.domain.Category;
+import ma.ensaf.catalogue.dto.CategoryNode;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Instantané immuable de l'arbre des catégories, avec sa table de fermeture précalculée :
+ * pour chaque catégorie, ses ancêtres (de la racine au parent) et ses descendants (elle comprise).
+ *
+ * Construit en une passe à partir de toutes les catégories, puis jamais modifié :
+ * les lectures n'ont besoin d'aucun verrou, une modification produit un nouvel instantané.
+ * Une catégorie dont le parent n'existe pas est traitée comme une racine.
+ */
+public final class CategoryTree {
+
+    static final CategoryTree EMPTY = new CategoryTree(List.of());
+
+    private static final Comparator<Category> DISPLAY_ORDER = Comparator
+            .comparing((Category category) -> category.getDisplayOrder() == null ? 0 : category.getDisplayOrder())
+            .thenComparing(Category::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Category::getId);
+
+    private final Map<Long, Category> byId;
+    private final Map<Long, List<Long>> ancestors;
+    private final Map<Long, Set<Long>> descendants;
+    private final Map<Long, Set<String>> descendantCodes;
+    private final List<CategoryNode> roots;
+
+    public CategoryTree(Collection<Category> categories) {
+        Map<Long, Category> byId = new HashMap<>();
+        categories.forEach(category -> byId.put(category.getId(), category));
+
+        Map<Long, List<Category>> children = new HashMap<>();
+        List<Category> rootCategories = new ArrayList<>();
+        for (Category category : byId.values()) {
+            if (category.hasParent() && byId.containsKey(category.getParentCategoryId())) {
+                children.computeIfAbsent(category.getParentCategoryId(), id -> new ArrayList<>()).add(category);
+            } else {
+                rootCategories.add(category);
+            }
+        }
+        children.values().forEach(list -> list.sort(DISPLAY_ORDER));
+        rootCategories.sort(DISPLAY_ORDER);
+
+        // parcours en profondeur depuis les racines : le chemin courant donne les ancêtres de chaque noeud
+        // (une catégorie prise dans un cycle n'est atteinte depuis aucune racine : elle est ignorée)
+        Map<Long, List<Long>> ancestors = new HashMap<>();
+        Map<Long, Set<Long>> descendants = new HashMap<>();
+        List<CategoryNode> roots = new ArrayList<>(rootCategories.size());
+        for (Category root : rootCategories) {
+            roots.add(visit(root, new ArrayList<>(), children, ancestors, descendants));
+        }
+
+        Map<Long, Set<Long>> subtrees = new HashMap<>();
+        Map<Long, Set<String>> subtreeCodes = new HashMap<>();
+        descendants.forEach((id, ids) -> {
+            subtrees.put(id, Set.copyOf(ids));
+            subtreeCodes.put(id, ids.stream().map(descendant -> byId.get(descendant).getCode())
+                    .collect(Collectors.toUnmodifiableSet()));
+        });
+        byId.keySet().retainAll(ancestors.keySet());
+
+        this.byId = Map.copyOf(byId);
+        this.ancestors = Map.copyOf(ancestors);
+        this.descendants = Map.copyOf(subtrees);
+        this.descendantCodes = Map.copyOf(subtreeCodes);
+        this.roots = List.copyOf(roots);
+    }
+
+    private static CategoryNode visit(Category category, List<Long> path, Map<Long, List<Category>> children,
+                                      Map<Long, List<Long>> ancestors, Map<Long, Set<Long>> descendants) {
+        Long id = category.getId();
+        ancestors.put(id, List.copyOf(path));
+        descendants.computeIfAbsent(id, key -> new HashSet<>()).add(id);
+        path.forEach(ancestor -> descendants.get(ancestor).add(id));
+
+        path.add(id);
+        List<CategoryNode> childNodes = new ArrayList<>();
+        for (Category child : children.getOrDefault(id, List.of())) {
+            childNodes.add(visit(child, path, children, ancestors, descendants));
+        }
+        path.removeLast();
+        return new CategoryNode(id, category.getCode(), category.getName(), category.getDisplayOrder(),
+                category.isArchived(), List.copyOf(childNodes));
+    }
+
+    public boolean contains(Long id) {
+        return byId.containsKey(id);
+    }
+
+    /**
+     * Racines de l'arbre, avec leurs sous-arbres
+     */
+    public List<CategoryNode> roots() {
+        return roots;
+    }
+
+    /**
+     * Ids des ancêtres de la catégorie, de la racine au parent (vide pour une racine ou une catégorie inconnue)
+     */
+    public List<Long> ancestorsOf(Long id) {
+        return ancestors.getOrDefault(id, List.of());
+    }
+
+    /**
+     * Ids de la catégorie et de tous ses descendants (vide pour une catégorie inconnue)
+     */
+    public Set<Long> subtreeOf(Long id) {
+        return descendants.getOrDefault(id, Set.of());
+    }
+
+    /**
+     * Codes de la catégorie et de tous ses descendants : les valeurs de Product.category du sous-arbre
+     */
+    public Set<String> subtreeCodesOf(Long id) {
+        return descendantCodes.getOrDefault(id, Set.of());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
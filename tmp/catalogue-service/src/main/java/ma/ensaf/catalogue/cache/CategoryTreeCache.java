@@ -0,0 +1,60 @@
+package ma.ensaf.catalogue.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.event.CategoryChangedEvent;
+import ma.ensaf.catalogue.repository.CategoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Arbre des catégories en mémoire : un instantané immuable (CategoryTree) remplacé d'un bloc.
+ *
+ * Les catégories sont peu nombreuses et changent rarement : chaque écriture commitée reconstruit
+ * tout l'instantané à partir de la base, puis le publie par une écriture volatile.
+ * Un lecteur voit donc soit l'ancien arbre, soit le nouveau, jamais un arbre à moitié modifié.
+ * Les reconstructions sont sérialisées pour qu'une lecture plus ancienne ne remplace pas une plus récente.
+ *
+ * Lecture sur la base principale, dans une transaction en écriture : l'arbre ne doit pas être construit
+ * à partir d'une réplique en retard (la vérification des cycles de CategoryService s'appuie dessus).
+ * Sans elle, findAll() ouvrirait sa propre transaction readOnly, routée vers la réplique au démarrage
+ * et après le commit d'une écriture.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Lock rebuildLock = new ReentrantLock();
+    private volatile CategoryTree tree = CategoryTree.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        rebuildLock.lock();
+        try {
+            tree = transactionTemplate.execute(status -> new CategoryTree(categoryRepository.findAll()));
+        } finally {
+            rebuildLock.unlock();
+        }
+        log.debug("Category tree built: {} categories in {} ms", tree.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    public CategoryTree tree() {
+        return tree;
+    }
+}
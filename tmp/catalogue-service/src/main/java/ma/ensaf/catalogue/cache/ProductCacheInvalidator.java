@@ -0,0 +1,39 @@
+package ma.ensaf.catalogue.cache;
+
+import lombok.RequiredArgsConstructor;
+import ma.ensaf.catalogue.config.CacheConfig;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalide les entrées de cache d'un produit dès que son écriture est commitée,
+ * dans le thread de l'écriture (avant le retour de ProductService).
+ *
+ * Les lectures en cache sont synchronisées par clé (@Cacheable(sync = true)) :
+ * une invalidation attend la fin d'un chargement en cours sur la même clé,
+ * donc une lecture commencée avant le commit ne peut pas réinsérer l'ancien prix.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        evict(CacheConfig.PRODUCTS, product.getId());
+        evict(CacheConfig.PRODUCTS_BY_SKU, product.getSku());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ma.ensaf.catalogue.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.cache.autoconfigure.CacheManagerCustomizer;
+import org.springframework.boot.cache.autoconfigure.CacheProperties;
+import org.springframework.boot.thread.Threading;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Active le cache Spring (Caffeine, configuré dans application.yaml via spring.cache.*).
+ * Caffeine utilise l'éviction W-TinyLFU, bornée en taille et en durée de vie.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_SKU = "productsBySku";
+
+    /**
+     * En mode threads virtuels : un cache synchrone charge la valeur de @Cacheable(sync = true)
+     * à l'intérieur d'un ConcurrentHashMap.compute, donc sous un moniteur, et l'appel JPA épinglerait
+     * le thread virtuel sur son thread porteur. En mode asynchrone, le chargement est une tâche
+     * (ici sur un thread virtuel) et l'appelant attend son CompletableFuture, sans moniteur.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    CacheManagerCustomizer<CaffeineCacheManager> virtualThreadsCacheCustomizer(CacheProperties cacheProperties) {
+        return cacheManager -> {
+            String spec = cacheProperties.getCaffeine().getSpec();
+            Caffeine<Object, Object> caffeine = spec != null ? Caffeine.from(spec) : Caffeine.newBuilder();
+            cacheManager.setCaffeine(caffeine.executor(Executors.newVirtualThreadPerTaskExecutor()));
+            cacheManager.setAsyncCacheMode(true);
+        };
+    }
+}
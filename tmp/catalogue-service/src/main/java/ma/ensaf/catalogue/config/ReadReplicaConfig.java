@@ -0,0 +1,51 @@
+package ma.ensaf.catalogue.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Routage lecture / écriture, actif seulement si une réplique est configurée
+ * (catalogue.datasource.replica.jdbc-url) :
+ * - les transactions @Transactional(readOnly = true) lisent la réplique
+ * - toutes les autres (écritures, verrous, relectures après écriture) restent sur spring.datasource
+ *
+ * La connexion réelle n'est prise qu'à la première requête SQL (LazyConnectionDataSourceProxy) :
+ * à ce moment le gestionnaire de transactions a déjà marqué la connexion read-only,
+ * ce qui choisit le pool de la réplique.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalogue.datasource.replica", name = "jdbc-url")
+public class ReadReplicaConfig {
+
+    // pool principal, configuré comme sans réplique (spring.datasource.*, spring.datasource.hikari.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // pool de la réplique : propriétés Hikari directement sous catalogue.datasource.replica
+    @Bean
+    @ConfigurationProperties("catalogue.datasource.replica")
+    HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replica);
+        return dataSource;
+    }
+}
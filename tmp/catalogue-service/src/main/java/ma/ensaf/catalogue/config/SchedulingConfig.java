@@ -0,0 +1,13 @@
+package ma.ensaf.catalogue.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active @Scheduled (réconciliation périodique des agrégats en mémoire, voir CategoryFacets).
+ * Les tâches tournent sur le planificateur de Spring Boot (spring.task.scheduling.*).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
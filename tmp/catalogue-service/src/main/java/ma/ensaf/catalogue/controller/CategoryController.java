@@ -0,0 +1,74 @@
+package ma.ensaf.catalogue.controller;
+
+import lombok.RequiredArgsConstructor;
+import ma.ensaf.catalogue.domain.Category;
+import ma.ensaf.catalogue.dto.CategoryNode;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.service.CategoryService;
+import ma.ensaf.catalogue.service.ProductService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/categories")
+@RequiredArgsConstructor
+public class CategoryController {
+
+    private final CategoryService categoryService;
+    private final ProductService productService;
+
+    //GET /api/v1/categories
+    @GetMapping
+    public List<Category> getAllCategories() {
+        return categoryService.findAll();
+    }
+
+    //GET /api/v1/categories/tree
+    // Arbre complet (racines et sous-catégories imbriquées), servi depuis la mémoire
+    @GetMapping("/tree")
+    public List<CategoryNode> getCategoryTree() {
+        return categoryService.findTree();
+    }
+
+    //GET /api/v1/categories/{id} : 404 si la catégorie n'existe pas
+    @GetMapping("/{id}")
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+        return ResponseEntity.of(categoryService.findById(id));
+    }
+
+    //GET /api/v1/categories/{id}/products?limit=20
+    // Produits de la catégorie et de toutes ses sous-catégories, en une requête
+    @GetMapping("/{id}/products")
+    public List<ProductSummary> getProductsInCategoryTree(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "" + ProductController.DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > ProductController.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + ProductController.MAX_PAGE_SIZE);
+        }
+        return productService.findByCategoryTree(id, limit);
+    }
+
+    //POST /api/v1/categories body {"name": "Laptops", "code": "LAPTOPS", "parentCategoryId": 1}
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Category createCategory(@RequestBody Category category) {
+        return categoryService.create(category);
+    }
+
+    //PUT /api/v1/categories/{id} body {...}
+    // Le code, référencé par les produits, ne peut pas changer
+    @PutMapping("/{id}")
+    public Category updateCategory(@PathVariable Long id, @RequestBody Category category) {
+        return categoryService.update(id, category);
+    }
+
+    //DELETE /api/v1/categories/{id}
+    // Refusé tant que la catégorie a des sous-catégories ou des produits
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteCategory(@PathVariable Long id) {
+        categoryService.deleteById(id);
+    }
+}
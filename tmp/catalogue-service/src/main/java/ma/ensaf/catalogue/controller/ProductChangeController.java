@@ -0,0 +1,55 @@
+package ma.ensaf.catalogue.controller;
+
+import lombok.RequiredArgsConstructor;
+import ma.ensaf.catalogue.dto.ProductChange;
+import ma.ensaf.catalogue.outbox.ProductChangeBus;
+import ma.ensaf.catalogue.outbox.ProductOutboxPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/products/changes")
+@RequiredArgsConstructor
+public class ProductChangeController {
+
+    static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+    static final int REPLAY_BATCH_SIZE = 1000;
+
+    private final ProductChangeBus productChangeBus;
+    private final ProductOutboxPublisher outboxPublisher;
+
+    //GET /api/v1/products/changes (Accept: text/event-stream, Last-Event-ID: 1200 pour reprendre)
+    // Flux SSE des changements de prix / stock / disponibilité : un événement par changement,
+    // nommé CREATED, UPDATED ou DELETED, dont l'id est la position dans l'outbox
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        ProductChangeStream stream = new ProductChangeStream(emitter, lastEventId == null ? 0 : lastEventId);
+        if (lastEventId == null) {
+            // nouveau client : seulement les changements à venir
+            stream.onClose(productChangeBus.subscribe(stream));
+            return emitter;
+        }
+        // reprise : abonné avant de relire l'outbox, et verrou tenu pendant la relecture,
+        // pour que les lots diffusés entre-temps arrivent après (et soient filtrés par position)
+        stream.lock().lock();
+        try {
+            stream.onClose(productChangeBus.subscribe(stream));
+            List<ProductChange> missed;
+            do {
+                missed = outboxPublisher.replay(stream.lastSent(), REPLAY_BATCH_SIZE);
+                stream.onProductChanges(missed);
+            } while (missed.size() == REPLAY_BATCH_SIZE);
+        } finally {
+            stream.lock().unlock();
+        }
+        return emitter;
+    }
+}
@@ -0,0 +1,66 @@
+package ma.ensaf.catalogue.controller;
+
+import ma.ensaf.catalogue.dto.ProductChange;
+import ma.ensaf.catalogue.outbox.ProductChangeSubscriber;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Un client SSE abonné au bus : chaque changement est envoyé avec sa position comme id d'événement.
+ * Les positions déjà envoyées sont ignorées, ce qui permet de recevoir le même lot
+ * par la reprise (Last-Event-ID) et en direct sans doublon ni désordre.
+ */
+class ProductChangeStream implements ProductChangeSubscriber {
+
+    private final SseEmitter emitter;
+    private final Lock lock = new ReentrantLock();
+    private long lastSent;
+    private Runnable unsubscribe = () -> { };
+
+    ProductChangeStream(SseEmitter emitter, long lastEventId) {
+        this.emitter = emitter;
+        this.lastSent = lastEventId;
+    }
+
+    Lock lock() {
+        return lock;
+    }
+
+    long lastSent() {
+        return lastSent;
+    }
+
+    void onClose(Runnable unsubscribe) {
+        this.unsubscribe = unsubscribe;
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+    }
+
+    @Override
+    public void onProductChanges(List<ProductChange> changes) {
+        lock.lock();
+        try {
+            for (ProductChange change : changes) {
+                if (change.position() <= lastSent) {
+                    continue;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.position()))
+                        .name(change.type().name())
+                        .data(change));
+                lastSent = change.position();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client parti : on se désabonne sans gêner les autres abonnés
+            unsubscribe.run();
+            emitter.completeWithError(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,12 +1,39 @@
 package ma.ensaf.catalogue.controller;
 
 import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryFacet;
+import ma.ensaf.catalogue.dto.CursorPage;
+import ma.ensaf.catalogue.dto.ImportReport;
+import ma.ensaf.catalogue.dto.ProductBatchRequest;
+import ma.ensaf.catalogue.dto.ProductBatchResponse;
+import ma.ensaf.catalogue.dto.ProductFilter;
+import ma.ensaf.catalogue.dto.ProductListVersion;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.dto.StockReservationRequest;
+import ma.ensaf.catalogue.service.ProductImportService;
 import ma.ensaf.catalogue.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -14,21 +41,82 @@ import java.util.List;
 @Slf4j
 public class ProductController {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 200;
+    // pagination par offset (plage de prix) : au-delà, passer par des bornes de prix plus étroites
+    static final int MAX_OFFSET = 10_000;
+    static final int MAX_BATCH_SIZE = 500;
+    static final Set<String> FILTER_SORT_PROPERTIES = Set.of("price", "name", "id");
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
 
-    //GET /api/v1/products
-    // Récupérer la liste de tous les produits
+    //GET /api/v1/products?after=40&size=20
+    // Récupérer une page de produits (pagination par curseur sur l'id), en vue résumée
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.findAll();
+    // GET conditionnel : 304 Not Modified si l'empreinte de la page n'a pas changé (vérifiée sans charger la page)
+    public CursorPage<ProductSummary> getAllProducts(@RequestParam(required = false) Long after,
+                                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                              WebRequest request) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (isNotModified(request, productService.findPageVersion(after, size))) {
+            return null;
+        }
+        List<ProductSummary> products = productService.findPage(after, size);
+        Long nextCursor = products.size() == size ? products.getLast().id() : null;
+        return new CursorPage<>(products, nextCursor);
+    }
+
+    //GET /api/v1/products/stream
+    // Exporter tout le catalogue en NDJSON (un produit JSON par ligne), écrit au fil de la lecture
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = out -> productService.streamAll(product -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
 
     //GET /api/v1/products/{id} => GET /api/v1/products/5
-    // Récupérer un produit par son ID
+    // Récupérer un produit par son ID ; 304 Not Modified si le client a déjà cette version
+    // (If-None-Match avec l'ETag "<id>-<version>", ou If-Modified-Since)
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable(name = "id") Long pk) {
-        return productService.findById(pk)
+    public Product getProductById(@PathVariable(name = "id") Long pk, WebRequest request) {
+        Product product = productService.findById(pk)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + pk));
+        if (request.checkNotModified("\"" + product.getId() + "-" + product.getVersion() + "\"",
+                epochMillis(product.getUpdatedAt()))) {
+            return null;
+        }
+        return product;
+    }
+
+    //GET /api/v1/products/sku/{sku} => GET /api/v1/products/sku/LAP-001
+    // Récupérer un produit par son SKU
+    @GetMapping("/sku/{sku}")
+    public Product getProductBySku(@PathVariable String sku) {
+        return productService.findBySku(sku)
+            .orElseThrow(() -> new RuntimeException("Product not found with sku: " + sku));
+    }
+
+    //POST /api/v1/products/batch body {"ids": [1, 2, 3], "skus": ["LAP-001"]}
+    // Résoudre plusieurs produits en un seul appel (ex. toutes les lignes d'une commande)
+    @PostMapping("/batch")
+    public ProductBatchResponse getProductsBatch(@RequestBody ProductBatchRequest request) {
+        int size = (request.ids() == null ? 0 : request.ids().size()) + (request.skus() == null ? 0 : request.skus().size());
+        if (size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch can contain at most " + MAX_BATCH_SIZE + " ids and skus");
+        }
+        return productService.findBatch(request);
     }
 
     //POST /api/v1/products body {...}
@@ -40,11 +128,48 @@ public class ProductController {
         return productService.create(product);
     }
 
-    //PUT /api/v1/products/{id} body {...}
-    // Mettre à jour un produit existant
+    //POST /api/v1/products/import body [{...}, {...}] ou NDJSON (un produit par ligne)
+    // Créer des produits en masse, avec un compte rendu ligne par ligne
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ImportReport importProducts(InputStream body) {
+        return productImportService.importProducts(body);
+    }
+
+    //PUT /api/v1/products/{id} body {..., "version": 3}
+    // Mettre à jour un produit existant à partir de la version lue : 428 Precondition Required sans version,
+    // 409 Conflict si le produit a changé depuis
     @PutMapping("/{id}")
-    public Product updateProduct(@PathVariable Long id, @RequestBody Product product) {
-        return productService.update(id, product);
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
+        if (product.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        return ResponseEntity.ok(productService.update(id, product));
+    }
+
+    //POST /api/v1/products/{id}/stock/reserve?quantity=2
+    // Réserver du stock : 200 avec le produit à jour, 409 Conflict si le stock est insuffisant
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Product> reserveStock(@PathVariable Long id, @RequestParam int quantity) {
+        return productService.reserveStock(id, quantity)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    //POST /api/v1/products/stock/reserve  {"lines": [{"productId": 1, "quantity": 2}, ...]}
+    // Réserver toute une commande : 200 avec le stock restant par produit, 409 Conflict si une ligne
+    // manque de stock (et alors rien n'est réservé)
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<List<ProductSummary>> reserveStock(@RequestBody StockReservationRequest request) {
+        return productService.reserveStock(request)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    //POST /api/v1/products/{id}/stock/release?quantity=2
+    // Remettre en stock (annulation d'une réservation)
+    @PostMapping("/{id}/stock/release")
+    public Product releaseStock(@PathVariable Long id, @RequestParam int quantity) {
+        return productService.releaseStock(id, quantity);
     }
 
     //DELETE /api/v1/products/{id}
@@ -56,16 +181,115 @@ public class ProductController {
         productService.deleteById(id);
     }
 
-    //GET /api/v1/products/search?keyword=phone
-    // Rechercher des produits par mot-clé dans le nom
+    //GET /api/v1/products/search?keyword=phone&limit=20
+    // Rechercher des produits par mot-clé (nom, description, catégorie, sku), classés par pertinence
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String keyword) {
-        log.info("Searching products with keyword: {}", keyword);
-        return productService.findByKeyword(keyword);
+    public List<ProductSummary> searchProducts(@RequestParam String keyword,
+                                        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return productService.findByKeyword(keyword, limit);
     }
 
+    //GET /api/v1/products/category/Electronics
+    // Produits d'une catégorie ; 304 Not Modified si l'empreinte de la catégorie n'a pas changé
     @GetMapping("/category/{category}")
-    public List<Product> getProductsByCategory(@PathVariable String category) {
+    public List<ProductSummary> getProductsByCategory(@PathVariable String category, WebRequest request) {
+        if (isNotModified(request, productService.findCategoryVersion(category))) {
+            return null;
+        }
         return productService.findByCategory(category);
     }
-}
\ No newline at end of file
+
+    //GET /api/v1/products/facets
+    // Par catégorie : nombre de produits, produits en stock, prix min / max (agrégats maintenus en mémoire)
+    @GetMapping("/facets")
+    public List<CategoryFacet> getFacets() {
+        return productService.findFacets();
+    }
+
+    //GET /api/v1/products/filter?category=Electronics&minPrice=100&maxPrice=500&available=true&sort=price,desc&limit=20
+    // Filtrer le catalogue sur plusieurs critères optionnels en une seule requête
+    @GetMapping("/filter")
+    public List<ProductSummary> filterProducts(@RequestParam(required = false) String category,
+                                        @RequestParam(required = false) Double minPrice,
+                                        @RequestParam(required = false) Double maxPrice,
+                                        @RequestParam(required = false) Boolean available,
+                                        @SortDefault("price") Sort sort,
+                                        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        for (Sort.Order order : sort) {
+            if (!FILTER_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            }
+        }
+        return productService.findByFilter(new ProductFilter(category, minPrice, maxPrice, available), sort, limit);
+    }
+
+    //GET /api/v1/products/price-range?minPrice=100&maxPrice=500&available=true&offset=0&limit=20
+    // Produits d'une plage de prix, par prix croissant (servi par l'index de prix en mémoire)
+    @GetMapping("/price-range")
+    public List<ProductSummary> getProductsByPriceRange(@RequestParam(required = false) Double minPrice,
+                                                 @RequestParam(required = false) Double maxPrice,
+                                                 @RequestParam(required = false) Boolean available,
+                                                 @RequestParam(defaultValue = "0") int offset,
+                                                 @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (offset < 0 || offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + MAX_OFFSET);
+        }
+        return productService.findByPriceRange(minPrice, maxPrice, available, offset, limit);
+    }
+
+    //GET /api/v1/products/price-range/count?minPrice=100&maxPrice=500&available=true
+    // Seulement le nombre de produits de la plage (slider de prix), sans lire les produits
+    @GetMapping("/price-range/count")
+    public long countProductsByPriceRange(@RequestParam(required = false) Double minPrice,
+                                          @RequestParam(required = false) Double maxPrice,
+                                          @RequestParam(required = false) Boolean available) {
+        return productService.countByPriceRange(minPrice, maxPrice, available);
+    }
+
+    //GET /api/v1/products/suggest?prefix=lap&limit=10
+    // Autocomplétion de la barre de recherche : noms et SKU qui commencent par le préfixe, les plus vendus d'abord
+    // (au plus catalogue.suggest.top-k suggestions, quelle que soit la limite demandée)
+    @GetMapping("/suggest")
+    public List<ProductSuggestion> suggestProducts(@RequestParam String prefix,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank");
+        }
+        return productService.suggest(prefix, limit);
+    }
+
+    // Compare l'empreinte d'une liste aux en-têtes If-None-Match / If-Modified-Since et pose ETag / Last-Modified.
+    // Une suppression ne change pas la date de dernière modification : seul l'ETag (qui inclut le nombre
+    // et la somme des ids) la détecte, c'est donc lui que les clients doivent renvoyer.
+    // Quand la réponse est 304, le contrôleur retourne null et Spring n'écrit pas de corps.
+    private static boolean isNotModified(WebRequest request, ProductListVersion version) {
+        LocalDateTime lastModified = version.lastModified();
+        String eTag = "\"" + version.count() + "-" + version.idSum() + "-"
+                + (lastModified == null ? 0 : lastModified.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + lastModified.getNano() / 1_000) + "\"";
+        return request.checkNotModified(eTag, epochMillis(lastModified));
+    }
+
+    // les dates d'audit sont en heure locale du serveur ; -1 = pas de Last-Modified
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Mise à jour fondée sur une version périmée du produit : le client doit relire puis réessayer
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e) {
+        log.info("Concurrent modification rejected: {}", e.getMessage());
+    }
+}
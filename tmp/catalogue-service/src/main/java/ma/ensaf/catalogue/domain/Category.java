@@ -0,0 +1,50 @@
+package ma.ensaf.catalogue.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Catégorie du catalogue, organisée en arbre par {@code parentCategoryId}.
+ * Un produit appartient à une catégorie par son champ {@code category}, qui contient le {@code code} de la catégorie.
+ */
+@Entity
+@Table(name = "categories", indexes = @Index(name = "idx_categories_parent", columnList = "parentCategoryId"))
+@Getter @Setter
+@ToString
+@EqualsAndHashCode(callSuper = false, of = "code")
+@NoArgsConstructor @AllArgsConstructor
+@SuperBuilder
+public class Category extends AuditedEntity<Long> {
+
+    @Column(nullable = false)
+    private String name;
+
+    // clé métier, référencée par Product.category
+    @Column(nullable = false, unique = true)
+    private String code;
+
+    private String description;
+
+    @Builder.Default
+    private Integer displayOrder = 0;
+
+    @Builder.Default
+    private boolean archived = false;
+
+    private Long parentCategoryId;
+
+    @JsonIgnore
+    public boolean isRoot() {
+        return parentCategoryId == null;
+    }
+
+    @JsonIgnore
+    public boolean hasParent() {
+        return parentCategoryId != null;
+    }
+}
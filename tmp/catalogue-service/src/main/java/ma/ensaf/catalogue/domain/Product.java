@@ -1,13 +1,21 @@
 package ma.ensaf.catalogue.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "products")
+// Index composites pour les pages de listing : filtre par catégorie / disponibilité, puis tri ou plage sur le prix
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_available_price", columnList = "category, available, price"),
+        @Index(name = "idx_products_available_price", columnList = "available, price")
+})
 @Getter @Setter
 @ToString
 @NoArgsConstructor @AllArgsConstructor
@@ -32,4 +40,15 @@ public class Product extends AuditedEntity<Long> {
 
     private boolean available = true;
 
+    // Unités vendues (réservées, moins les réservations annulées) : popularité pour l'autocomplétion.
+    // Tenu par les UPDATE de réservation, jamais par le client.
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long soldQuantity;
+
+    // Verrouillage optimiste : un update fondé sur une version périmée échoue au lieu d'écraser
+    // une écriture concurrente (réservation de stock comprise, qui incrémente aussi la version)
+    @Version
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package ma.ensaf.catalogue.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de l'outbox des changements de produits : écrite dans la transaction de l'écriture,
+ * publiée ensuite par ProductOutboxPublisher.
+ * {@code position} est null tant que la ligne n'est pas publiée, puis donne l'ordre de publication
+ * (c'est l'id des événements SSE, repris par Last-Event-ID).
+ */
+@Entity
+@Table(name = "product_outbox", indexes = @Index(name = "idx_product_outbox_position", columnList = "position", unique = true))
+@Getter @Setter
+@ToString
+@NoArgsConstructor @AllArgsConstructor
+@SuperBuilder
+public class ProductOutboxEvent extends BaseEntity<Long> {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductChangedEvent.Type type;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    private String sku;
+
+    private Double price;
+
+    private Integer stockQuantity;
+
+    private boolean available;
+
+    private Long productVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    private Long position;
+
+    private LocalDateTime publishedAt;
+}
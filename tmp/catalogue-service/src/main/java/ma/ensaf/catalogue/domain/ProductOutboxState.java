@@ -0,0 +1,35 @@
+package ma.ensaf.catalogue.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Ligne unique qui coordonne la publication de l'outbox entre les instances du catalogue :
+ * verrouillée (FOR UPDATE SKIP LOCKED) par la transaction qui attribue les positions d'un lot,
+ * elle porte la dernière position attribuée. Un seul lot est donc attribué à la fois sur toute la base,
+ * et les positions suivent l'ordre des commits.
+ */
+@Entity
+@Table(name = "product_outbox_state")
+@Getter @Setter
+@ToString
+@NoArgsConstructor @AllArgsConstructor
+public class ProductOutboxState implements Persistable<Long> {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    private long lastPosition;
+
+    // la ligne n'est enregistrée par save() qu'à sa création : toujours un INSERT, jamais un merge
+    // qui écraserait le compteur d'une autre instance
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package ma.ensaf.catalogue.dto;
+
+/**
+ * Agrégat d'une catégorie pour les facettes de la vitrine (GET /facets) :
+ * nombre de produits, produits en stock (stockQuantity > 0) et plage de prix
+ */
+public record CategoryFacet(String category, long productCount, long inStockCount, Double minPrice, Double maxPrice) {
+}
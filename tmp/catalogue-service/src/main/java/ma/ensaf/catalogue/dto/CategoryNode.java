@@ -0,0 +1,10 @@
+package ma.ensaf.catalogue.dto;
+
+import java.util.List;
+
+/**
+ * Noeud de l'arbre des catégories (GET /api/v1/categories/tree), enfants triés par displayOrder puis nom
+ */
+public record CategoryNode(Long id, String code, String name, Integer displayOrder, boolean archived,
+                           List<CategoryNode> children) {
+}
@@ -0,0 +1,11 @@
+package ma.ensaf.catalogue.dto;
+
+import java.util.List;
+
+/**
+ * Page de résultats paginée par curseur.
+ * {@code nextCursor} est l'id à passer en paramètre {@code after} pour obtenir la page suivante,
+ * ou {@code null} s'il n'y a plus de résultats.
+ */
+public record CursorPage<T>(List<T> content, Long nextCursor) {
+}
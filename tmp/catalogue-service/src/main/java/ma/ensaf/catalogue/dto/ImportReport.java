@@ -0,0 +1,14 @@
+package ma.ensaf.catalogue.dto;
+
+import java.util.List;
+
+/**
+ * Compte rendu d'un import en masse, avec le résultat de chaque ligne
+ */
+public record ImportReport(long created, long rejected, List<ImportRowResult> rows) {
+
+    public static ImportReport of(List<ImportRowResult> rows) {
+        long created = rows.stream().filter(row -> row.status() == ImportRowResult.Status.CREATED).count();
+        return new ImportReport(created, rows.size() - created, rows);
+    }
+}
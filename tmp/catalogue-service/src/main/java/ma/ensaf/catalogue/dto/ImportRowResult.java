@@ -0,0 +1,17 @@
+package ma.ensaf.catalogue.dto;
+
+/**
+ * Résultat de l'import d'une ligne : {@code line} est la position de la ligne dans le flux (à partir de 1)
+ */
+public record ImportRowResult(long line, String sku, Status status, Long id, String error) {
+
+    public enum Status { CREATED, REJECTED }
+
+    public static ImportRowResult created(long line, String sku, Long id) {
+        return new ImportRowResult(line, sku, Status.CREATED, id, null);
+    }
+
+    public static ImportRowResult rejected(long line, String sku, String error) {
+        return new ImportRowResult(line, sku, Status.REJECTED, null, error);
+    }
+}
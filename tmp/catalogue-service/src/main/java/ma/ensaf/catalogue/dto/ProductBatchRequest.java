@@ -0,0 +1,9 @@
+package ma.ensaf.catalogue.dto;
+
+import java.util.List;
+
+/**
+ * Produits à résoudre en un seul appel, par id et / ou par sku (l'une des deux listes peut être absente)
+ */
+public record ProductBatchRequest(List<Long> ids, List<String> skus) {
+}
@@ -0,0 +1,10 @@
+package ma.ensaf.catalogue.dto;
+
+import java.util.List;
+
+/**
+ * Résultat d'un batch : les produits trouvés (dans l'ordre de la demande)
+ * et, à part, les ids et skus qui n'existent pas
+ */
+public record ProductBatchResponse(List<ProductSummary> products, List<Long> missingIds, List<String> missingSkus) {
+}
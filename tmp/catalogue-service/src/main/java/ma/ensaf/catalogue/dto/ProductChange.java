@@ -0,0 +1,14 @@
+package ma.ensaf.catalogue.dto;
+
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement de produit diffusé aux abonnés (bus en mémoire, flux SSE), dans l'ordre de {@code position}.
+ * Livraison au moins une fois : un abonné peut recevoir deux fois la même position, et ignore
+ * un changement dont {@code version} est inférieure à celle qu'il connaît déjà.
+ */
+public record ProductChange(long position, ProductChangedEvent.Type type, Long productId, String sku, Double price,
+                            Integer stockQuantity, boolean available, Long version, LocalDateTime occurredAt) {
+}
@@ -0,0 +1,7 @@
+package ma.ensaf.catalogue.dto;
+
+/**
+ * Critères de filtre du catalogue, tous optionnels (null = pas de filtre sur ce critère)
+ */
+public record ProductFilter(String category, Double minPrice, Double maxPrice, Boolean available) {
+}
@@ -0,0 +1,12 @@
+package ma.ensaf.catalogue.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Empreinte d'une liste de produits, calculée par agrégat sans charger les lignes
+ * (GET conditionnels) : nombre de produits, somme de leurs ids (change si un produit
+ * sort de la liste et qu'un autre y entre) et date de dernière modification.
+ * {@code idSum} et {@code lastModified} sont {@code null} pour une liste vide.
+ */
+public record ProductListVersion(Long count, Long idSum, LocalDateTime lastModified) {
+}
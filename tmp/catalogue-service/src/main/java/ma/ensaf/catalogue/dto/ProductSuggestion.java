@@ -0,0 +1,7 @@
+package ma.ensaf.catalogue.dto;
+
+/**
+ * Complétion renvoyée par GET /suggest : de quoi afficher la liste déroulante et ouvrir la fiche du produit
+ */
+public record ProductSuggestion(Long id, String name, String sku) {
+}
@@ -0,0 +1,9 @@
+package ma.ensaf.catalogue.dto;
+
+/**
+ * Vue réduite d'un produit, lue directement par projection dans ProductRepository :
+ * utilisée par les listes et la recherche (l'entité complète est réservée aux vues détail)
+ * et par POST /batch, pour qu'order-service vérifie le stock et fige productName / unitPrice
+ */
+public record ProductSummary(Long id, String sku, String name, Double price, Integer stockQuantity, boolean available) {
+}
@@ -0,0 +1,12 @@
+package ma.ensaf.catalogue.dto;
+
+import java.util.List;
+
+/**
+ * Lignes d'une commande à réserver ensemble (POST /stock/reserve) : toutes ou aucune
+ */
+public record StockReservationRequest(List<Line> lines) {
+
+    public record Line(Long productId, int quantity) {
+    }
+}
@@ -0,0 +1,10 @@
+package ma.ensaf.catalogue.event;
+
+import ma.ensaf.catalogue.domain.Category;
+
+/**
+ * Événement publié par CategoryService à chaque écriture sur une catégorie.
+ * L'arbre des catégories en mémoire (CategoryTreeCache) est reconstruit après le commit.
+ */
+public record CategoryChangedEvent(Category category) {
+}
@@ -0,0 +1,26 @@
+package ma.ensaf.catalogue.event;
+
+import ma.ensaf.catalogue.domain.Product;
+
+/**
+ * Événement publié par ProductService à chaque écriture sur un produit.
+ * Les structures en mémoire (index, agrégats...) l'écoutent après le commit
+ * pour se mettre à jour de façon incrémentale.
+ * Pour un DELETED, {@code product} est l'état du produit juste avant sa suppression.
+ */
+public record ProductChangedEvent(Type type, Product product) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(Type.CREATED, product);
+    }
+
+    public static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(Type.UPDATED, product);
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(Type.DELETED, product);
+    }
+}
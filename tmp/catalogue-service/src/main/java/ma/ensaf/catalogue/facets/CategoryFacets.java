@@ -0,0 +1,206 @@
+package ma.ensaf.catalogue.facets;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryFacet;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Agrégats par catégorie (nombre de produits, produits en stock, prix min / max) matérialisés en mémoire.
+ *
+ * Construits une fois au démarrage, puis mis à jour de façon incrémentale à chaque ProductChangedEvent :
+ * la contribution d'un produit (catégorie, prix, en stock) est mémorisée par id, ce qui permet de retirer
+ * l'ancienne avant d'ajouter la nouvelle. Les prix de chaque catégorie sont un multi-ensemble trié,
+ * pour retrouver le min / max quand le produit le moins cher sort de la catégorie.
+ *
+ * La version de chaque produit écarte un événement plus ancien arrivé en retard ; un produit supprimé
+ * laisse une pierre tombale (sa version à la suppression), pour qu'un UPDATE en retard ne le fasse pas revenir.
+ * Les pierres tombales sont effacées par une reconstruction, qui relit l'état commité.
+ *
+ * Reconstruction et réconciliation lisent la base principale (transaction en écriture, pas readOnly) :
+ * sur une réplique en retard, le retard passerait pour un écart et la reconstruction effacerait
+ * les pierres tombales au profit de lignes périmées.
+ *
+ * Une réconciliation périodique compare les agrégats au GROUP BY de la base
+ * (catalogue.facets.reconcile-interval) et reconstruit tout en cas d'écart.
+ * Les produits sans catégorie ne sont pas comptés.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryFacets {
+
+    /**
+     * Ce qu'un produit apporte aux agrégats de sa catégorie. Un produit sans catégorie garde une contribution
+     * (category == null) qui n'entre dans aucun agrégat : sa version écarte encore les événements plus anciens.
+     */
+    private record Contribution(String category, double price, boolean inStock, long version) {
+    }
+
+    /**
+     * Agrégat d'une catégorie : prix -> nombre de produits à ce prix
+     */
+    private static final class Aggregate {
+        final NavigableMap<Double, Integer> prices = new TreeMap<>();
+        long count;
+        long inStock;
+
+        CategoryFacet toFacet(String category) {
+            return new CategoryFacet(category, count, inStock, prices.firstKey(), prices.lastKey());
+        }
+    }
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    // produits supprimés : id -> version à la suppression
+    private final Map<Long, Long> tombstones = new HashMap<>();
+    private final Map<String, Aggregate> aggregates = new TreeMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            contributions.clear();
+            aggregates.clear();
+            tombstones.clear();
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(this::doApply);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Category facets built: {} categories, {} products in {} ms",
+                aggregates.size(), contributions.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Met à jour les agrégats après le commit de chaque écriture de ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            switch (event.type()) {
+                case CREATED, UPDATED -> doApply(event.product());
+                case DELETED -> {
+                    doRemove(event.product().getId());
+                    tombstones.merge(event.product().getId(), versionOf(event.product()), Math::max);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compare les agrégats au GROUP BY de la base et reconstruit tout s'ils ont dérivé
+     * (événement perdu, écriture hors de ProductService...). Retourne le nombre de catégories en écart.
+     *
+     * Un commit dont l'événement n'est pas encore traité peut apparaître comme un écart :
+     * la reconstruction est alors inutile mais sans danger (appliquer un événement est idempotent).
+     */
+    @Scheduled(initialDelayString = "${catalogue.facets.reconcile-interval}",
+            fixedDelayString = "${catalogue.facets.reconcile-interval}")
+    @Transactional
+    public int reconcile() {
+        Set<CategoryFacet> expected = new HashSet<>(productRepository.findCategoryFacets());
+        Set<CategoryFacet> actual = new HashSet<>(facets());
+        // différence symétrique : agrégats faux, catégories manquantes ou en trop
+        Set<CategoryFacet> drifted = new HashSet<>(expected);
+        drifted.addAll(actual);
+        drifted.removeIf(facet -> expected.contains(facet) && actual.contains(facet));
+        if (drifted.isEmpty()) {
+            log.debug("Category facets reconciled: no drift");
+            return 0;
+        }
+        log.warn("Category facets drifted from the database on {} categories, rebuilding: {}", drifted.size(), drifted);
+        rebuild();
+        return drifted.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Agrégats de toutes les catégories, triés par nom de catégorie
+     */
+    public List<CategoryFacet> facets() {
+        lock.readLock().lock();
+        try {
+            List<CategoryFacet> facets = new ArrayList<>(aggregates.size());
+            aggregates.forEach((category, aggregate) -> facets.add(aggregate.toFacet(category)));
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doApply(Product product) {
+        Contribution previous = contributions.get(product.getId());
+        long version = versionOf(product);
+        // événements de deux écritures concurrentes traités dans le désordre : on garde le plus récent
+        if (previous != null && previous.version() > version) {
+            return;
+        }
+        // écriture antérieure à la suppression du produit
+        Long deletedVersion = tombstones.get(product.getId());
+        if (deletedVersion != null && version <= deletedVersion) {
+            return;
+        }
+        doRemove(product.getId());
+        if (product.getCategory() == null) {
+            contributions.put(product.getId(), new Contribution(null, 0, false, version));
+            return;
+        }
+        Contribution contribution = new Contribution(product.getCategory(), product.getPrice(),
+                product.getStockQuantity() != null && product.getStockQuantity() > 0, version);
+        contributions.put(product.getId(), contribution);
+        Aggregate aggregate = aggregates.computeIfAbsent(contribution.category(), category -> new Aggregate());
+        aggregate.count++;
+        if (contribution.inStock()) {
+            aggregate.inStock++;
+        }
+        aggregate.prices.merge(contribution.price(), 1, Integer::sum);
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+
+    private void doRemove(Long id) {
+        Contribution contribution = contributions.remove(id);
+        if (contribution == null || contribution.category() == null) {
+            return;
+        }
+        Aggregate aggregate = aggregates.get(contribution.category());
+        aggregate.count--;
+        if (contribution.inStock()) {
+            aggregate.inStock--;
+        }
+        aggregate.prices.computeIfPresent(contribution.price(), (price, count) -> count == 1 ? null : count - 1);
+        if (aggregate.count == 0) {
+            aggregates.remove(contribution.category());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ma.ensaf.catalogue.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compteurs métier des lectures du catalogue, par opération (tag "operation"), exposés par l'actuator :
+ * - catalogue.results.returned : produits renvoyés au client
+ * - catalogue.rows.scanned : produits examinés pour les produire (quand on le sait côté application)
+ *
+ * Les latences sont mesurées ailleurs, sans code : http.server.requests (un timer par endpoint)
+ * et spring.data.repository.invocations (un timer par méthode de ProductRepository),
+ * avec histogrammes et percentiles configurés dans application.yaml. Les hits / miss du cache
+ * sont dans cache.gets (recordStats de Caffeine).
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogueMetrics {
+
+    public static final String RESULTS_RETURNED = "catalogue.results.returned";
+    public static final String ROWS_SCANNED = "catalogue.rows.scanned";
+
+    private final MeterRegistry meterRegistry;
+
+    // un compteur par (métrique, opération), créé au premier usage : pas de recherche dans le registre à chaque appel
+    private final Map<String, Counter> resultsReturned = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rowsScanned = new ConcurrentHashMap<>();
+
+    public void resultsReturned(String operation, long count) {
+        counter(resultsReturned, RESULTS_RETURNED, operation, "Products returned to the client").increment(count);
+    }
+
+    public void rowsScanned(String operation, long count) {
+        counter(rowsScanned, ROWS_SCANNED, operation, "Products examined to answer a read").increment(count);
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String operation, String description) {
+        // get d'abord : sans verrou une fois le compteur créé (computeIfAbsent peut prendre le moniteur du bucket)
+        Counter counter = counters.get(operation);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(operation, op -> Counter.builder(name)
+                    .tag("operation", op)
+                    .description(description)
+                    .register(meterRegistry));
+        }
+        return counter;
+    }
+}
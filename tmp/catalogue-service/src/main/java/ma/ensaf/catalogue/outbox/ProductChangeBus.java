@@ -0,0 +1,96 @@
+package ma.ensaf.catalogue.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.dto.ProductChange;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bus en mémoire des changements de produits, alimenté par ProductOutboxPublisher.
+ * Les abonnés sont parcourus sans verrou (CopyOnWriteArrayList : abonnements rares, publications fréquentes).
+ * La livraison se fait sur l'exécuteur de Spring Boot (applicationTaskExecutor, threads virtuels avec le profil
+ * virtual-threads) : publish ne fait que mettre le lot en file, un client SSE lent ne bloque ni le publisher
+ * ni les autres abonnés. Chaque abonné reçoit ses lots un à la fois, dans l'ordre de publication.
+ * L'échec d'un abonné est journalisé et n'empêche pas la livraison aux autres.
+ */
+@Component
+@Slf4j
+public class ProductChangeBus {
+
+    private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+    private final TaskExecutor executor;
+
+    public ProductChangeBus(List<ProductChangeSubscriber> subscribers,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor executor) {
+        this.executor = executor;
+        subscribers.forEach(subscriber -> deliveries.add(new Delivery(subscriber)));
+    }
+
+    /**
+     * Abonne {@code subscriber} ; exécuter le Runnable retourné le désabonne
+     */
+    public Runnable subscribe(ProductChangeSubscriber subscriber) {
+        Delivery delivery = new Delivery(subscriber);
+        deliveries.add(delivery);
+        return () -> deliveries.remove(delivery);
+    }
+
+    public void publish(List<ProductChange> changes) {
+        for (Delivery delivery : deliveries) {
+            delivery.offer(changes);
+        }
+    }
+
+    public int subscriberCount() {
+        return deliveries.size();
+    }
+
+    /**
+     * File d'un abonné : au plus une tâche de livraison à la fois, qui vide la file dans l'ordre
+     */
+    private final class Delivery implements Runnable {
+
+        private final ProductChangeSubscriber subscriber;
+        private final Queue<List<ProductChange>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Delivery(ProductChangeSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(List<ProductChange> changes) {
+            pending.add(changes);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<ProductChange> changes;
+            while ((changes = pending.poll()) != null) {
+                try {
+                    subscriber.onProductChanges(changes);
+                } catch (RuntimeException e) {
+                    log.warn("Product change subscriber {} failed: {}", subscriber, e.getMessage());
+                }
+            }
+            scheduled.set(false);
+            // un lot ajouté entre le dernier poll et la remise à false n'a pas relancé de tâche
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
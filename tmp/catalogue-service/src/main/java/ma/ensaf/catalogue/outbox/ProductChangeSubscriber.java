@@ -0,0 +1,19 @@
+package ma.ensaf.catalogue.outbox;
+
+import ma.ensaf.catalogue.dto.ProductChange;
+
+import java.util.List;
+
+/**
+ * Abonné du bus des changements de produits. Tout bean qui implémente cette interface est abonné
+ * automatiquement (ex. un relais vers un broker) ; les abonnés temporaires (flux SSE) passent
+ * par ProductChangeBus.subscribe.
+ *
+ * Appelé sur un thread de l'exécuteur, un lot à la fois et dans l'ordre des positions :
+ * un abonné lent n'accumule du retard que pour lui-même.
+ */
+@FunctionalInterface
+public interface ProductChangeSubscriber {
+
+    void onProductChanges(List<ProductChange> changes);
+}
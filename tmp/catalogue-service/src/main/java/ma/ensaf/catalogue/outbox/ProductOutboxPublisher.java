@@ -0,0 +1,155 @@
+package ma.ensaf.catalogue.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.domain.ProductOutboxEvent;
+import ma.ensaf.catalogue.domain.ProductOutboxState;
+import ma.ensaf.catalogue.dto.ProductChange;
+import ma.ensaf.catalogue.repository.ProductOutboxRepository;
+import ma.ensaf.catalogue.repository.ProductOutboxStateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vide l'outbox des produits par lots et les diffuse sur le ProductChangeBus.
+ *
+ * Pour chaque lot, une transaction verrouille la ligne ProductOutboxState (FOR UPDATE SKIP LOCKED),
+ * attribue aux lignes en attente les positions qui suivent son compteur (dans l'ordre des ids),
+ * les marque publiées et avance le compteur ; le lot est diffusé après le commit.
+ * Le verrou est pris en base : avec plusieurs instances du catalogue, une seule attribue un lot à la fois
+ * (les autres passent leur tour), et le compteur est transactionnel. Les positions publiées sont donc
+ * uniques (contrainte unique en base), contiguës et visibles dans l'ordre : un flux SSE peut reprendre
+ * exactement après Last-Event-ID (voir replay). Si le processus s'arrête entre le commit et la diffusion,
+ * les abonnés en mémoire disparaissent avec lui et les clients SSE retrouvent le lot par la reprise.
+ *
+ * Chaque instance diffuse sur son propre bus les lots qu'elle a attribués ; les clients SSE d'une autre
+ * instance les retrouvent par la reprise.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductOutboxPublisher {
+
+    private final ProductOutboxRepository outboxRepository;
+    private final ProductOutboxStateRepository stateRepository;
+    private final ProductChangeBus bus;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${catalogue.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${catalogue.outbox.retention:1d}")
+    private Duration retention;
+
+    // évite seulement que deux drain() de cette instance se disputent le verrou en base
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Crée la ligne de coordination au premier démarrage sur la base, en reprenant après les positions déjà
+     * attribuées. Si une autre instance la crée en même temps, la sienne est gardée.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initState() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!stateRepository.existsById(ProductOutboxState.ID)) {
+                    stateRepository.saveAndFlush(new ProductOutboxState(ProductOutboxState.ID, outboxRepository.findMaxPosition()));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Outbox state created by another instance");
+        }
+    }
+
+    /**
+     * Publie les lignes en attente, lot par lot, jusqu'à vider l'outbox. Retourne le nombre de changements diffusés.
+     */
+    @Scheduled(fixedDelayString = "${catalogue.outbox.poll-interval}")
+    public int drain() {
+        lock.lock();
+        try {
+            int total = 0;
+            List<ProductChange> changes;
+            do {
+                changes = claimBatch();
+                if (!changes.isEmpty()) {
+                    bus.publish(changes);
+                    total += changes.size();
+                }
+            } while (changes.size() == batchSize);
+            if (total > 0 && log.isDebugEnabled()) {
+                log.debug("Published {} product changes", total);
+            }
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changements déjà publiés après {@code afterPosition}, au plus {@code limit}, dans l'ordre des positions
+     * (lu sur la base principale : une réplique en retard ferait sauter des positions)
+     */
+    public List<ProductChange> replay(long afterPosition, int limit) {
+        return transactionTemplate.execute(status ->
+                outboxRepository.findByPositionGreaterThanOrderByPositionAsc(afterPosition, Limit.of(limit)).stream()
+                        .map(ProductOutboxPublisher::toChange)
+                        .toList());
+    }
+
+    /**
+     * Supprime les lignes publiées depuis plus de catalogue.outbox.retention
+     * (un client SSE déconnecté plus longtemps ne peut plus reprendre sans trou)
+     */
+    @Scheduled(fixedDelayString = "${catalogue.outbox.purge-interval}")
+    public int purge() {
+        int deleted = transactionTemplate.execute(status ->
+                outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Purged {} published product changes from the outbox", deleted);
+        }
+        return deleted;
+    }
+
+    private List<ProductChange> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            // verrou en base : vide si une autre instance attribue déjà un lot (ou avant initState)
+            Optional<ProductOutboxState> state = stateRepository.lockById(ProductOutboxState.ID);
+            if (state.isEmpty()) {
+                return List.<ProductChange>of();
+            }
+            // compteur transactionnel : un lot annulé ne laisse pas de trou
+            long position = state.get().getLastPosition();
+            List<ProductOutboxEvent> batch = outboxRepository.findByPositionIsNullOrderByIdAsc(Limit.of(batchSize));
+            LocalDateTime now = LocalDateTime.now();
+            List<ProductChange> changes = new ArrayList<>(batch.size());
+            for (ProductOutboxEvent event : batch) {
+                event.setPosition(++position);
+                event.setPublishedAt(now);
+                changes.add(toChange(event));
+            }
+            state.get().setLastPosition(position);
+            return changes;
+        });
+    }
+
+    private static ProductChange toChange(ProductOutboxEvent event) {
+        return new ProductChange(event.getPosition(), event.getType(), event.getProductId(), event.getSku(),
+                event.getPrice(), event.getStockQuantity(), event.isAvailable(), event.getProductVersion(),
+                event.getOccurredAt());
+    }
+}
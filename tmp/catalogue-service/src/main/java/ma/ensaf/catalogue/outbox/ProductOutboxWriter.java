@@ -0,0 +1,38 @@
+package ma.ensaf.catalogue.outbox;
+
+import lombok.RequiredArgsConstructor;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.domain.ProductOutboxEvent;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductOutboxRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ajoute chaque ProductChangedEvent à l'outbox, dans la transaction qui l'a publié
+ * (@EventListener synchrone, pas @TransactionalEventListener) : la ligne d'outbox est commitée
+ * avec l'écriture du produit, ou annulée avec elle. Aucun changement commité ne peut donc être perdu.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductOutboxWriter {
+
+    private final ProductOutboxRepository outboxRepository;
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        outboxRepository.save(ProductOutboxEvent.builder()
+                .type(event.type())
+                .productId(product.getId())
+                .sku(product.getSku())
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .available(product.isAvailable())
+                .productVersion(product.getVersion())
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+}
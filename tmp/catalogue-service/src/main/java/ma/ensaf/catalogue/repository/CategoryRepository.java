@@ -0,0 +1,20 @@
+package ma.ensaf.catalogue.repository;
+
+import ma.ensaf.catalogue.domain.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    Optional<Category> findByCode(String code);
+
+    boolean existsByCode(String code);
+
+    List<Category> findByArchivedFalse();
+
+    List<Category> findByParentCategoryIdIsNull();
+
+    boolean existsByParentCategoryId(Long parentCategoryId);
+}
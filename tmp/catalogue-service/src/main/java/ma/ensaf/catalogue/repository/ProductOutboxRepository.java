@@ -0,0 +1,28 @@
+package ma.ensaf.catalogue.repository;
+
+import ma.ensaf.catalogue.domain.ProductOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductOutboxRepository extends JpaRepository<ProductOutboxEvent, Long> {
+
+    // lignes en attente, dans l'ordre d'écriture
+//    @Query("select e from ProductOutboxEvent e where e.position is null order by e.id asc")
+    List<ProductOutboxEvent> findByPositionIsNullOrderByIdAsc(Limit limit);
+
+    // reprise d'un flux SSE après Last-Event-ID
+//    @Query("select e from ProductOutboxEvent e where e.position > ?1 order by e.position asc")
+    List<ProductOutboxEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Limit limit);
+
+    @Query("select coalesce(max(e.position), 0) from ProductOutboxEvent e")
+    long findMaxPosition();
+
+    @Modifying
+    @Query("delete from ProductOutboxEvent e where e.publishedAt < ?1")
+    int deletePublishedBefore(LocalDateTime publishedAt);
+}
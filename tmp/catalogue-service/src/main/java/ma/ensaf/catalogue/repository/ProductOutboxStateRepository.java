@@ -0,0 +1,20 @@
+package ma.ensaf.catalogue.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import ma.ensaf.catalogue.domain.ProductOutboxState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface ProductOutboxStateRepository extends JpaRepository<ProductOutboxState, Long> {
+
+    // FOR UPDATE SKIP LOCKED (délai -2) : vide si une autre instance publie déjà un lot, au lieu d'attendre
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select s from ProductOutboxState s where s.id = ?1")
+    Optional<ProductOutboxState> lockById(Long id);
+}
@@ -1,13 +1,26 @@
 package ma.ensaf.catalogue.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryFacet;
+import ma.ensaf.catalogue.dto.ProductListVersion;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     // Méthodes fournies automatiquement par JpaRepository :
     // - save(Product)
@@ -43,4 +56,97 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     //    @Query("select (count(p) > 0) from Product p where p.sku = ?1")
     boolean existsBySku(String sku);
-}
\ No newline at end of file
+
+    // une catégorie encore référencée par des produits (Product.category = code) ne peut pas être supprimée
+    boolean existsByCategory(String category);
+
+    // Vérification d'unicité pour tout un lot en une seule requête (import en masse)
+    @Query("select p.sku from Product p where p.sku in ?1")
+    Set<String> findExistingSkus(Collection<String> skus);
+
+    // Projections ProductSummary pour les listes et la recherche : seules les colonnes affichées sont lues
+    // (pas de description ni de dates), et Hibernate ne crée ni entité gérée ni copie pour le dirty checking
+
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where p.id > ?1 order by p.id asc")
+    List<ProductSummary> findSummariesAfterId(Long afterId, Limit limit);
+
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where p.category = ?1")
+    List<ProductSummary> findSummariesByCategory(String category);
+
+    // Produits d'un sous-arbre de catégories : les codes viennent de la table de fermeture en mémoire (CategoryTree),
+    // donc une seule requête IN sur l'index (category, ...) au lieu d'une requête par niveau
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where p.category in ?1 order by p.id asc")
+    List<ProductSummary> findSummariesByCategoryIn(Collection<String> categories, Limit limit);
+
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where upper(p.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(p.description) like upper(concat('%', ?1, '%')) " +
+            "or upper(p.category) like upper(concat('%', ?1, '%')) " +
+            "or upper(p.sku) like upper(concat('%', ?1, '%'))")
+    List<ProductSummary> findSummariesByKeyword(String keyword, Limit limit);
+
+    // Autocomplétion tant que le trie n'est pas construit : préfixe du nom ou du SKU, les plus vendus d'abord
+    @Query("select new ma.ensaf.catalogue.dto.ProductSuggestion(p.id, p.name, p.sku) " +
+            "from Product p where p.available = true " +
+            "and (upper(p.name) like concat(upper(?1), '%') or upper(p.sku) like concat(upper(?1), '%')) " +
+            "order by p.soldQuantity desc, p.name asc, p.id asc")
+    List<ProductSuggestion> findSuggestionsByPrefix(String prefix, Limit limit);
+
+    // Empreintes des listes (ETag / Last-Modified) : un agrégat, sans lire ni projeter les produits.
+    // La page est la même sous-requête que findSummariesAfterId (parcours de la clé primaire, size lignes au plus).
+    // (casts : Hibernate ne connaît pas le type des colonnes de la sous-requête pour choisir le constructeur)
+    @Query("select new ma.ensaf.catalogue.dto.ProductListVersion(count(*), cast(sum(s.id) as Long), cast(max(s.updatedAt) as LocalDateTime)) " +
+            "from (select p.id as id, p.updatedAt as updatedAt from Product p where p.id > ?1 order by p.id asc limit ?2) s")
+    ProductListVersion findPageVersion(Long afterId, int size);
+
+    @Query("select new ma.ensaf.catalogue.dto.ProductListVersion(count(p), sum(p.id), max(p.updatedAt)) " +
+            "from Product p where p.category = ?1")
+    ProductListVersion findCategoryVersion(String category);
+
+    // Agrégats par catégorie calculés par la base : référence de la réconciliation de CategoryFacets
+    @Query("select new ma.ensaf.catalogue.dto.CategoryFacet(p.category, count(p), " +
+            "sum(case when p.stockQuantity > 0 then 1 else 0 end), min(p.price), max(p.price)) " +
+            "from Product p where p.category is not null group by p.category")
+    List<CategoryFacet> findCategoryFacets();
+
+    // Résolution en lot (POST /batch) : une seule requête IN
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where p.id in ?1")
+    List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where p.sku in ?1")
+    List<ProductSummary> findSummariesBySkuIn(Collection<String> skus);
+
+    @Query("select new ma.ensaf.catalogue.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stockQuantity, p.available) " +
+            "from Product p where p.id in ?1 or p.sku in ?2")
+    List<ProductSummary> findSummariesByIdInOrSkuIn(Collection<Long> ids, Collection<String> skus);
+
+    // Lecture en flux : les lignes sont lues au fil de l'eau par le curseur JDBC
+    // (à consommer dans une transaction, puis fermer le Stream).
+    // Entités en lecture seule : pas d'instantané ni de vérification au flush, même dans une transaction
+    // en écriture (reconstructions des index sur la base principale)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id asc")
+    Stream<Product> streamAll();
+
+    // Réservation atomique : la vérification du stock et la décrémentation se font dans le même UPDATE,
+    // sous le verrou de ligne de la base. Retourne 0 si le stock est insuffisant (ou le produit absent).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - ?2, p.soldQuantity = p.soldQuantity + ?2, " +
+            "p.version = p.version + 1, " +
+            "p.updatedAt = local datetime where p.id = ?1 and p.stockQuantity >= ?2")
+    int reserveStock(Long id, int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stockQuantity = coalesce(p.stockQuantity, 0) + ?2, " +
+            "p.soldQuantity = greatest(p.soldQuantity - ?2, 0), p.version = p.version + 1, " +
+            "p.updatedAt = local datetime where p.id = ?1")
+    int releaseStock(Long id, int quantity);
+}
@@ -0,0 +1,34 @@
+package ma.ensaf.catalogue.repository;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductFilter;
+import org.springframework.data.jpa.domain.PredicateSpecification;
+
+/**
+ * Construit la requête de filtre du catalogue en n'ajoutant que les critères renseignés.
+ * On évite volontairement les {@code (:param is null or ...)} : le WHERE généré ne contient que
+ * des égalités sur category / available et une plage sur price, dans l'ordre des index composites
+ * (category, available, price) et (available, price) déclarés sur Product.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static PredicateSpecification<Product> matching(ProductFilter filter) {
+        PredicateSpecification<Product> spec = PredicateSpecification.unrestricted();
+        if (filter.category() != null) {
+            spec = spec.and((from, cb) -> cb.equal(from.get("category"), filter.category()));
+        }
+        if (filter.available() != null) {
+            spec = spec.and((from, cb) -> cb.equal(from.get("available"), filter.available()));
+        }
+        if (filter.minPrice() != null) {
+            spec = spec.and((from, cb) -> cb.greaterThanOrEqualTo(from.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            spec = spec.and((from, cb) -> cb.lessThanOrEqualTo(from.get("price"), filter.maxPrice()));
+        }
+        return spec;
+    }
+}
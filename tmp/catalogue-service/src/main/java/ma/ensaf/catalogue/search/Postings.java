@@ -0,0 +1,60 @@
+package ma.ensaf.catalogue.search;
+
+import java.util.Arrays;
+
+/**
+ * Liste de postings d'un token : ids de produits triés, avec pour chacun le masque
+ * des champs dans lesquels le token apparaît.
+ * Stockage en tableaux primitifs (pas de Long boxés), non thread-safe :
+ * les accès sont protégés par le verrou de ProductSearchIndex.
+ */
+class Postings {
+
+    private long[] ids = new long[4];
+    private byte[] fieldMasks = new byte[4];
+    private int size;
+
+    void add(long id, int fieldMask) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            fieldMasks[pos] |= (byte) fieldMask;
+            return;
+        }
+        pos = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            fieldMasks = Arrays.copyOf(fieldMasks, size * 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        System.arraycopy(fieldMasks, pos, fieldMasks, pos + 1, size - pos);
+        ids[pos] = id;
+        fieldMasks[pos] = (byte) fieldMask;
+        size++;
+    }
+
+    void remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        System.arraycopy(fieldMasks, pos + 1, fieldMasks, pos, size - pos - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long idAt(int i) {
+        return ids[i];
+    }
+
+    int fieldMaskAt(int i) {
+        return fieldMasks[i];
+    }
+}
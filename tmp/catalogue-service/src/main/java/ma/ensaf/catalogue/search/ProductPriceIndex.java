@@ -0,0 +1,401 @@
+package ma.ensaf.catalogue.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.metrics.CatalogueMetrics;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index trié des produits par (prix, id), en mémoire, pour le filtre par plage de prix (slider) :
+ * compter les produits d'une plage ou en lire une page ne touche pas la base.
+ *
+ * Les entrées sont rangées dans des blocs triés et contigus de tableaux primitifs parallèles
+ * (prix, id, disponibilité), au plus {@value #BLOCK_CAPACITY} par bloc : un arbre B+ à deux niveaux.
+ * Une borne se trouve par recherche dichotomique sur les blocs puis dans le bloc ; entre les deux bornes,
+ * les blocs complets sont comptés sans être parcourus (taille et nombre de produits disponibles tenus à jour).
+ * Une écriture ne décale que les entrées d'un bloc ; un bloc plein est coupé en deux.
+ *
+ * Construit au démarrage, puis mis à jour après le commit de chaque ProductChangedEvent.
+ * Comme pour les facettes, la version du produit écarte un événement plus ancien arrivé en retard,
+ * y compris après la suppression du produit (pierre tombale gardée jusqu'à la prochaine reconstruction).
+ * Les produits sans prix ne sont pas indexés.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPriceIndex {
+
+    static final int BLOCK_CAPACITY = 512;
+    // remplissage des blocs à la construction : de la place pour les insertions sans découpage immédiat
+    private static final int BUILD_FILL = BLOCK_CAPACITY * 3 / 4;
+
+    /**
+     * Ce que l'index connaît d'un produit, pour le retrouver dans les blocs quand il change
+     */
+    private record Entry(double price, boolean available, long version) {
+    }
+
+    private record Row(long id, Entry entry) {
+    }
+
+    private static final class Block {
+        final double[] prices = new double[BLOCK_CAPACITY];
+        final long[] ids = new long[BLOCK_CAPACITY];
+        final boolean[] available = new boolean[BLOCK_CAPACITY];
+        int size;
+        int availableCount;
+
+        // première position dont la clé est >= (price, id)
+        int lowerBound(double price, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(prices[mid], ids[mid], price, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean lastIsLowerThan(double price, long id) {
+            return compare(prices[size - 1], ids[size - 1], price, id) < 0;
+        }
+
+        void insert(int position, double price, long id, boolean isAvailable) {
+            int moved = size - position;
+            System.arraycopy(prices, position, prices, position + 1, moved);
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(available, position, available, position + 1, moved);
+            prices[position] = price;
+            ids[position] = id;
+            available[position] = isAvailable;
+            size++;
+            if (isAvailable) {
+                availableCount++;
+            }
+        }
+
+        void remove(int position) {
+            if (available[position]) {
+                availableCount--;
+            }
+            int moved = size - position - 1;
+            System.arraycopy(prices, position + 1, prices, position, moved);
+            System.arraycopy(ids, position + 1, ids, position, moved);
+            System.arraycopy(available, position + 1, available, position, moved);
+            size--;
+        }
+
+        // déplace la moitié haute dans un nouveau bloc
+        Block split() {
+            Block upper = new Block();
+            int from = size / 2;
+            upper.size = size - from;
+            System.arraycopy(prices, from, upper.prices, 0, upper.size);
+            System.arraycopy(ids, from, upper.ids, 0, upper.size);
+            System.arraycopy(available, from, upper.available, 0, upper.size);
+            for (int i = 0; i < upper.size; i++) {
+                if (upper.available[i]) {
+                    upper.availableCount++;
+                }
+            }
+            availableCount -= upper.availableCount;
+            size = from;
+            return upper;
+        }
+
+        // entrées de [from, to) qui passent le filtre de disponibilité
+        int count(int from, int to, Boolean filter) {
+            if (filter == null) {
+                return to - from;
+            }
+            if (from == 0 && to == size) {
+                return filter ? availableCount : size - availableCount;
+            }
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (available[i] == filter) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Position dans l'index : bloc, puis position dans le bloc ; block == blocks.size() pour la fin
+     */
+    private record Position(int block, int offset) {
+    }
+
+    private final ProductRepository productRepository;
+    private final CatalogueMetrics metrics;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Block> blocks = new ArrayList<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // produits supprimés : id -> version à la suppression
+    private final Map<Long, Long> tombstones = new HashMap<>();
+
+    private volatile boolean ready;
+
+    // lecture sur la base principale : une réplique en retard donnerait un index déjà périmé
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            blocks.clear();
+            entries.clear();
+            tombstones.clear();
+            List<Row> rows = new ArrayList<>();
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.filter(product -> product.getPrice() != null)
+                        .forEach(product -> rows.add(new Row(product.getId(), entryOf(product))));
+            }
+            rows.sort((left, right) -> compare(left.entry().price(), left.id(), right.entry().price(), right.id()));
+            Block block = null;
+            for (Row row : rows) {
+                if (block == null || block.size == BUILD_FILL) {
+                    block = new Block();
+                    blocks.add(block);
+                }
+                block.insert(block.size, row.entry().price(), row.id(), row.entry().available());
+                entries.put(row.id(), row.entry());
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Price index built: {} products in {} blocks in {} ms",
+                entries.size(), blocks.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.product());
+            case DELETED -> remove(event.product().getId(), versionOf(event.product()));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            Entry current = entries.get(product.getId());
+            Entry next = entryOf(product);
+            if (current != null && next.version() < current.version()) {
+                return;
+            }
+            Long deletedVersion = tombstones.get(product.getId());
+            if (deletedVersion != null && next.version() <= deletedVersion) {
+                return;
+            }
+            doRemove(product.getId());
+            if (product.getPrice() != null) {
+                doInsert(product.getId(), next);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire le produit supprimé à la version {@code version} : les événements de versions antérieures
+     * ou égales qui arriveraient ensuite sont ignorés
+     */
+    public void remove(Long id, long version) {
+        lock.writeLock().lock();
+        try {
+            doRemove(id);
+            tombstones.merge(id, version, Math::max);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de produits dont le prix est dans [minPrice, maxPrice] (bornes null = ouvertes),
+     * disponibles ou non selon {@code available} (null = tous)
+     */
+    public long count(Double minPrice, Double maxPrice, Boolean available) {
+        lock.readLock().lock();
+        try {
+            Position from = lowerBound(minPrice);
+            Position to = upperBound(minPrice, maxPrice, from);
+            long count = 0;
+            int scanned = 0;
+            for (int b = from.block(); b < blocks.size() && b <= to.block(); b++) {
+                Block block = blocks.get(b);
+                int start = b == from.block() ? from.offset() : 0;
+                int end = b == to.block() ? to.offset() : block.size;
+                if (available != null && (start != 0 || end != block.size)) {
+                    scanned += end - start;
+                }
+                count += block.count(start, end, available);
+            }
+            metrics.rowsScanned("price-range", scanned);
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids des produits de la plage par prix croissant (puis id), après en avoir sauté {@code offset} :
+     * les blocs entièrement sautés ne sont pas parcourus
+     */
+    public List<Long> find(Double minPrice, Double maxPrice, Boolean available, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Position from = lowerBound(minPrice);
+            Position to = upperBound(minPrice, maxPrice, from);
+            List<Long> ids = new ArrayList<>(Math.min(limit, entries.size()));
+            int toSkip = offset;
+            int scanned = 0;
+            for (int b = from.block(); b < blocks.size() && b <= to.block() && ids.size() < limit; b++) {
+                Block block = blocks.get(b);
+                int start = b == from.block() ? from.offset() : 0;
+                int end = b == to.block() ? to.offset() : block.size;
+                if (toSkip > 0) {
+                    // un bloc (ou morceau de bloc) entièrement sauté est compté sans être lu, sauf filtre sur un morceau
+                    if (available != null && (start != 0 || end != block.size)) {
+                        scanned += end - start;
+                    }
+                    int matching = block.count(start, end, available);
+                    if (matching <= toSkip) {
+                        toSkip -= matching;
+                        continue;
+                    }
+                }
+                for (int i = start; i < end && ids.size() < limit; i++) {
+                    scanned++;
+                    if (available != null && block.available[i] != available) {
+                        continue;
+                    }
+                    if (toSkip > 0) {
+                        toSkip--;
+                        continue;
+                    }
+                    ids.add(block.ids[i]);
+                }
+            }
+            metrics.rowsScanned("price-range", scanned);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doInsert(long id, Entry entry) {
+        entries.put(id, entry);
+        if (blocks.isEmpty()) {
+            Block first = new Block();
+            first.insert(0, entry.price(), id, entry.available());
+            blocks.add(first);
+            return;
+        }
+        // après la dernière clé : fin du dernier bloc
+        int b = Math.min(findBlock(entry.price(), id), blocks.size() - 1);
+        Block block = blocks.get(b);
+        if (block.size == BLOCK_CAPACITY) {
+            Block upper = block.split();
+            blocks.add(b + 1, upper);
+            if (block.lastIsLowerThan(entry.price(), id)) {
+                block = upper;
+            }
+        }
+        block.insert(block.lowerBound(entry.price(), id), entry.price(), id, entry.available());
+    }
+
+    private void doRemove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        int b = findBlock(entry.price(), id);
+        Block block = blocks.get(b);
+        block.remove(block.lowerBound(entry.price(), id));
+        if (block.size == 0) {
+            blocks.remove(b);
+        }
+    }
+
+    // premier bloc dont la dernière clé est >= (price, id), blocks.size() s'il n'y en a pas
+    private int findBlock(double price, long id) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).lastIsLowerThan(price, id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // première entrée de prix >= minPrice
+    private Position lowerBound(Double minPrice) {
+        return minPrice == null ? new Position(0, 0) : position(minPrice, Long.MIN_VALUE);
+    }
+
+    // première entrée de prix > maxPrice (borne exclue)
+    private Position upperBound(Double maxPrice) {
+        return maxPrice == null ? new Position(blocks.size(), 0) : position(maxPrice, Long.MAX_VALUE);
+    }
+
+    // plage vide (minPrice > maxPrice) : on renvoie la borne basse, pour que [from, to) soit vide
+    private Position upperBound(Double minPrice, Double maxPrice, Position from) {
+        Position to = upperBound(maxPrice);
+        return minPrice != null && maxPrice != null && minPrice > maxPrice ? from : to;
+    }
+
+    private Position position(double price, long id) {
+        int b = findBlock(price, id);
+        return b == blocks.size() ? new Position(b, 0) : new Position(b, blocks.get(b).lowerBound(price, id));
+    }
+
+    private static Entry entryOf(Product product) {
+        return new Entry(product.getPrice() == null ? 0 : product.getPrice(), product.isAvailable(), versionOf(product));
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+
+    private static int compare(double leftPrice, long leftId, double rightPrice, long rightId) {
+        int byPrice = Double.compare(leftPrice, rightPrice);
+        return byPrice != 0 ? byPrice : Long.compare(leftId, rightId);
+    }
+}
@@ -0,0 +1,429 @@
+package ma.ensaf.catalogue.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.metrics.CatalogueMetrics;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index inversé en mémoire sur les champs name, description, category et sku des produits.
+ *
+ * Le texte est mis en majuscules (comme {@code upper()} dans ProductRepository.findByKeyword)
+ * puis découpé en tokens alphanumériques. Chaque token pointe vers les produits qui le contiennent.
+ * Le vocabulaire des tokens est lui-même indexé par trigrammes, ce qui permet de retrouver
+ * les tokens qui contiennent un mot-clé (recherche par sous-chaîne / préfixe) sans parcourir les produits.
+ *
+ * Un mot-clé sans séparateur est toujours contenu dans un seul token : les postings suffisent.
+ * S'il contient des séparateurs (ex. "LAP-001"), les candidats sont ceux de son plus long fragment
+ * alphanumérique, puis on vérifie la sous-chaîne sur le texte indexé.
+ * Les résultats sont donc identiques à ceux du {@code LIKE '%keyword%'}, seul l'ordre change (classement).
+ *
+ * Comme pour les autres index, la version du produit écarte un événement plus ancien arrivé en retard ;
+ * un produit supprimé laisse une pierre tombale jusqu'à la prochaine reconstruction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    /**
+     * Champs indexés, avec leur poids dans le classement
+     */
+    enum Field {
+        NAME(8), SKU(6), CATEGORY(4), DESCRIPTION(1);
+
+        final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+
+        String valueOf(Product product) {
+            return switch (this) {
+                case NAME -> product.getName();
+                case SKU -> product.getSku();
+                case CATEGORY -> product.getCategory();
+                case DESCRIPTION -> product.getDescription();
+            };
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    /**
+     * Texte indexé d'un produit (un élément par champ, null si le champ est null) et sa version
+     */
+    private record Document(long id, String[] fields, long version) {
+    }
+
+    /**
+     * Correspondance d'un produit : masques des champs qui contiennent le mot-clé,
+     * qui le contiennent en début de mot, et qui contiennent exactement ce mot
+     */
+    private static final class Hit {
+        final long id;
+        int matchMask;
+        int prefixMask;
+        int exactMask;
+
+        Hit(long id) {
+            this.id = id;
+        }
+
+        int score() {
+            int score = 0;
+            for (Field field : FIELDS) {
+                int bit = 1 << field.ordinal();
+                if ((exactMask & bit) != 0) {
+                    score += field.weight * 4;
+                } else if ((prefixMask & bit) != 0) {
+                    score += field.weight * 2;
+                } else if ((matchMask & bit) != 0) {
+                    score += field.weight;
+                }
+            }
+            return score;
+        }
+    }
+
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingInt(Hit::score).reversed().thenComparingLong(hit -> hit.id);
+
+    private final ProductRepository productRepository;
+    private final CatalogueMetrics metrics;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Set<String>> tokensByGram = new HashMap<>();
+    // produits supprimés : id -> version à la suppression
+    private final Map<Long, Long> tombstones = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Construit l'index à partir de la base au démarrage, lue sur la base principale
+     * (pas de transaction readOnly, routée vers la réplique quand il y en a une)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            tokensByGram.clear();
+            tombstones.clear();
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(this::doIndex);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built: {} products, {} tokens in {} ms",
+                documents.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Met à jour l'index après le commit de chaque écriture de ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.product());
+            case DELETED -> remove(event.product().getId(), versionOf(event.product()));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            long version = versionOf(product);
+            // événements de deux écritures concurrentes traités dans le désordre : on garde le plus récent
+            Document current = documents.get(product.getId());
+            if (current != null && version < current.version()) {
+                return;
+            }
+            Long deletedVersion = tombstones.get(product.getId());
+            if (deletedVersion != null && version <= deletedVersion) {
+                return;
+            }
+            doRemove(product.getId());
+            doIndex(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire le produit supprimé à la version {@code version} : les événements de versions antérieures
+     * ou égales qui arriveraient ensuite sont ignorés
+     */
+    public void remove(Long id, long version) {
+        lock.writeLock().lock();
+        try {
+            tombstones.merge(id, version, Math::max);
+            doRemove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les ids des produits dont un des champs indexés contient {@code keyword}
+     * (sans tenir compte de la casse), classés par pertinence, au plus {@code limit} ids
+     */
+    public List<Long> search(String keyword, int limit) {
+        String folded = fold(keyword);
+        lock.readLock().lock();
+        try {
+            Collection<Hit> hits;
+            int scanned;
+            if (isSingleFragment(folded)) {
+                hits = matchTokens(folded).values();
+                scanned = hits.size();
+            } else {
+                Collection<Document> candidates = candidatesFor(longestFragment(folded));
+                hits = matchText(folded, candidates);
+                scanned = candidates.size();
+            }
+            metrics.rowsScanned("search", scanned);
+            return topHits(hits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doIndex(Product product) {
+        String[] fields = new String[FIELDS.length];
+        Map<String, Integer> tokenMasks = new HashMap<>();
+        for (Field field : FIELDS) {
+            String value = field.valueOf(product);
+            if (value == null) {
+                continue;
+            }
+            fields[field.ordinal()] = fold(value);
+            for (String token : tokenize(fields[field.ordinal()])) {
+                tokenMasks.merge(token, 1 << field.ordinal(), (a, b) -> a | b);
+            }
+        }
+        long id = product.getId();
+        documents.put(id, new Document(id, fields, versionOf(product)));
+        tokenMasks.forEach((token, mask) -> postings.computeIfAbsent(token, this::newToken).add(id, mask));
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+
+    private void doRemove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String field : document.fields()) {
+            if (field == null) {
+                continue;
+            }
+            for (String token : tokenize(field)) {
+                Postings tokenPostings = postings.get(token);
+                if (tokenPostings == null) {
+                    continue;
+                }
+                tokenPostings.remove(id);
+                if (tokenPostings.isEmpty()) {
+                    postings.remove(token);
+                    forgetToken(token);
+                }
+            }
+        }
+    }
+
+    private Postings newToken(String token) {
+        for (String gram : grams(token)) {
+            tokensByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(token);
+        }
+        return new Postings();
+    }
+
+    private void forgetToken(String token) {
+        for (String gram : grams(token)) {
+            Set<String> tokens = tokensByGram.get(gram);
+            if (tokens != null) {
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    tokensByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tokens du vocabulaire qui contiennent {@code fragment} (alphanumérique, non vide)
+     */
+    private Collection<String> tokensContaining(String fragment) {
+        if (fragment.length() < GRAM_SIZE) {
+            return postings.keySet().stream().filter(token -> token.contains(fragment)).toList();
+        }
+        Set<String> smallest = null;
+        for (String gram : grams(fragment)) {
+            Set<String> tokens = tokensByGram.get(gram);
+            if (tokens == null) {
+                return List.of();
+            }
+            if (smallest == null || tokens.size() < smallest.size()) {
+                smallest = tokens;
+            }
+        }
+        return smallest.stream().filter(token -> token.contains(fragment)).toList();
+    }
+
+    private Map<Long, Hit> matchTokens(String fragment) {
+        Map<Long, Hit> hits = new HashMap<>();
+        if (fragment.isEmpty()) {
+            // LIKE '%%' : tous les champs non null correspondent
+            for (Document document : documents.values()) {
+                Hit hit = new Hit(document.id());
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (document.fields()[i] != null) {
+                        hit.matchMask |= 1 << i;
+                    }
+                }
+                hits.put(document.id(), hit);
+            }
+            return hits;
+        }
+        for (String token : tokensContaining(fragment)) {
+            boolean prefix = token.startsWith(fragment);
+            boolean exact = prefix && token.length() == fragment.length();
+            Postings tokenPostings = postings.get(token);
+            for (int i = 0; i < tokenPostings.size(); i++) {
+                int mask = tokenPostings.fieldMaskAt(i);
+                Hit hit = hits.computeIfAbsent(tokenPostings.idAt(i), Hit::new);
+                hit.matchMask |= mask;
+                if (prefix) {
+                    hit.prefixMask |= mask;
+                }
+                if (exact) {
+                    hit.exactMask |= mask;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private Collection<Document> candidatesFor(String fragment) {
+        if (fragment.isEmpty()) {
+            return documents.values();
+        }
+        return matchTokens(fragment).keySet().stream().map(documents::get).toList();
+    }
+
+    /**
+     * Vérifie la sous-chaîne sur le texte indexé des candidats
+     */
+    private List<Hit> matchText(String keyword, Collection<Document> candidates) {
+        List<Hit> hits = new ArrayList<>();
+        for (Document document : candidates) {
+            Hit hit = new Hit(document.id());
+            for (int i = 0; i < FIELDS.length; i++) {
+                String text = document.fields()[i];
+                int at = text == null ? -1 : text.indexOf(keyword);
+                if (at < 0) {
+                    continue;
+                }
+                hit.matchMask |= 1 << i;
+                if (text.equals(keyword)) {
+                    hit.exactMask |= 1 << i;
+                }
+                for (; at >= 0; at = text.indexOf(keyword, at + 1)) {
+                    if (at == 0 || !isTokenChar(text.charAt(at - 1))) {
+                        hit.prefixMask |= 1 << i;
+                        break;
+                    }
+                }
+            }
+            if (hit.matchMask != 0) {
+                hits.add(hit);
+            }
+        }
+        return hits;
+    }
+
+    private static List<Long> topHits(Collection<Hit> hits, int limit) {
+        PriorityQueue<Hit> top = new PriorityQueue<>(RANKING.reversed());
+        for (Hit hit : hits) {
+            top.offer(hit);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked.stream().map(hit -> hit.id).toList();
+    }
+
+    static String fold(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    static Set<String> tokenize(String folded) {
+        Set<String> tokens = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean tokenChar = i < folded.length() && isTokenChar(folded.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> grams(String token) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM_SIZE <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static boolean isSingleFragment(String folded) {
+        for (int i = 0; i < folded.length(); i++) {
+            if (!isTokenChar(folded.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String longestFragment(String folded) {
+        return tokenize(folded).stream().max(Comparator.comparingInt(String::length)).orElse("");
+    }
+}
@@ -0,0 +1,213 @@
+package ma.ensaf.catalogue.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.metrics.CatalogueMetrics;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.search.SuggestionTrie.Suggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Autocomplétion (GET /suggest) : trie en mémoire des noms et SKU des produits disponibles,
+ * dont chaque nœud garde les k complétions les plus populaires (unités vendues, voir Product.soldQuantity).
+ *
+ * Clés indexées, en majuscules comme pour la recherche : le SKU, le nom complet et le nom à partir
+ * de chacun de ses mots ("PRO" complète donc "Laptop Pro 15").
+ *
+ * Le trie est immuable : les lectures ne prennent aucun verrou et lisent la version publiée.
+ * Chaque ProductChangedEvent (après commit) en produit une nouvelle version qui ne recopie que les
+ * chemins des clés du produit, puis la publie d'un coup ; les écritures sont sérialisées par un verrou.
+ * Comme pour les autres index, la version du produit écarte un événement plus ancien arrivé en retard,
+ * y compris après la suppression du produit (pierre tombale gardée jusqu'à la prochaine reconstruction).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestIndex {
+
+    /**
+     * Ce que l'index connaît d'un produit (suggestion == null : produit non proposé, indisponible)
+     */
+    private record Entry(Suggestion suggestion, long version) {
+    }
+
+    private final ProductRepository productRepository;
+    private final CatalogueMetrics metrics;
+
+    // taille du top gardé par nœud : borne aussi le nombre de suggestions d'une réponse
+    @Value("${catalogue.suggest.top-k:10}")
+    private int topK;
+
+    private final Lock writeLock = new ReentrantLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // produits supprimés : id -> version à la suppression
+    private final Map<Long, Long> tombstones = new HashMap<>();
+
+    // null tant que l'index n'est pas construit
+    private volatile SuggestionTrie trie;
+
+    // lecture sur la base principale : les événements reçus avant la première construction sont ignorés,
+    // une réplique en retard perdrait donc leurs changements jusqu'à la prochaine reconstruction
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        writeLock.lock();
+        try {
+            entries.clear();
+            tombstones.clear();
+            List<Map.Entry<String, Suggestion>> keys = new ArrayList<>();
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(product -> {
+                    Suggestion suggestion = suggestionOf(product);
+                    entries.put(product.getId(), new Entry(suggestion, versionOf(product)));
+                    if (suggestion != null) {
+                        keysOf(suggestion).forEach(key -> keys.add(Map.entry(key, suggestion)));
+                    }
+                });
+            }
+            trie = SuggestionTrie.build(keys, topK);
+            log.info("Suggest index built: {} keys in {} ms", keys.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.product());
+            case DELETED -> remove(event.product().getId(), versionOf(event.product()));
+        }
+    }
+
+    public void index(Product product) {
+        writeLock.lock();
+        try {
+            if (trie == null) {
+                // la construction au démarrage lira le produit
+                return;
+            }
+            Entry current = entries.get(product.getId());
+            Entry next = new Entry(suggestionOf(product), versionOf(product));
+            if (current != null && next.version() < current.version()) {
+                return;
+            }
+            Long deletedVersion = tombstones.get(product.getId());
+            if (deletedVersion != null && next.version() <= deletedVersion) {
+                return;
+            }
+            entries.put(product.getId(), next);
+            Suggestion before = current == null ? null : current.suggestion();
+            // une écriture qui ne touche ni le nom, ni le SKU, ni la popularité (prix, description...) ne change pas le trie
+            if (!Objects.equals(before, next.suggestion())) {
+                trie = replace(trie, before, next.suggestion());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retire le produit supprimé à la version {@code version} : les événements de versions antérieures
+     * ou égales qui arriveraient ensuite sont ignorés
+     */
+    public void remove(Long id, long version) {
+        writeLock.lock();
+        try {
+            if (trie == null) {
+                return;
+            }
+            tombstones.merge(id, version, Math::max);
+            Entry current = entries.remove(id);
+            if (current != null && current.suggestion() != null) {
+                trie = replace(trie, current.suggestion(), null);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Au plus {@code limit} (et au plus catalogue.suggest.top-k) produits dont le nom, un mot du nom
+     * ou le SKU commence par {@code prefix}, les plus vendus d'abord
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        SuggestionTrie current = trie;
+        if (current == null) {
+            throw new IllegalStateException("Suggest index is not built yet");
+        }
+        List<Suggestion> completions = current.complete(ProductSearchIndex.fold(prefix).stripLeading(), limit);
+        // le top k est lu tel quel dans le nœud du préfixe : seules les suggestions renvoyées sont examinées
+        metrics.rowsScanned("suggest", completions.size());
+        return completions.stream()
+                .map(suggestion -> new ProductSuggestion(suggestion.id(), suggestion.name(), suggestion.sku()))
+                .toList();
+    }
+
+    public boolean isReady() {
+        return trie != null;
+    }
+
+    int topK() {
+        return topK;
+    }
+
+    // retire les clés de l'ancienne suggestion puis ajoute celles de la nouvelle (nom, SKU ou score changés)
+    private static SuggestionTrie replace(SuggestionTrie trie, Suggestion before, Suggestion after) {
+        SuggestionTrie next = trie;
+        if (before != null) {
+            for (String key : keysOf(before)) {
+                next = next.without(key, before.id());
+            }
+        }
+        if (after != null) {
+            for (String key : keysOf(after)) {
+                next = next.with(key, after);
+            }
+        }
+        return next;
+    }
+
+    // SKU, nom complet et nom à partir de chaque début de mot
+    static Set<String> keysOf(Suggestion suggestion) {
+        Set<String> keys = new HashSet<>();
+        if (suggestion.sku() != null) {
+            keys.add(ProductSearchIndex.fold(suggestion.sku()));
+        }
+        String name = ProductSearchIndex.fold(suggestion.name());
+        keys.add(name);
+        for (int i = 0; i < name.length(); i++) {
+            if (ProductSearchIndex.isTokenChar(name.charAt(i))
+                    && (i == 0 || !ProductSearchIndex.isTokenChar(name.charAt(i - 1)))) {
+                keys.add(name.substring(i));
+            }
+        }
+        keys.remove("");
+        return keys;
+    }
+
+    private static Suggestion suggestionOf(Product product) {
+        if (!product.isAvailable() || product.getName() == null) {
+            return null;
+        }
+        return new Suggestion(product.getId(), product.getName(), product.getSku(), product.getSoldQuantity());
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+}
@@ -0,0 +1,296 @@
+package ma.ensaf.catalogue.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie compact (radix : chaque arête porte une chaîne et non un caractère) et immuable des clés d'autocomplétion.
+ *
+ * Chaque nœud garde les k meilleures complétions distinctes de son sous-arbre : une recherche descend
+ * le préfixe et renvoie directement la liste du nœud atteint, sans parcourir le sous-arbre.
+ * Ce top k se calcule à partir de ceux des enfants : un produit du top k d'un nœud est forcément
+ * dans le top k de l'enfant qui le contient.
+ *
+ * Une modification ne recopie que les nœuds du chemin de la clé (en recalculant leur top k) et renvoie
+ * un nouveau trie qui partage tout le reste avec le précédent : les lecteurs qui tiennent encore
+ * l'ancienne version ne voient jamais d'état intermédiaire.
+ */
+final class SuggestionTrie {
+
+    /**
+     * Complétion proposée : un produit et sa popularité
+     */
+    record Suggestion(long id, String name, String sku, long score) {
+    }
+
+    // popularité décroissante, puis nom, puis id
+    static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::score).reversed()
+            .thenComparing(Suggestion::name)
+            .thenComparingLong(Suggestion::id);
+
+    private static final String[] NO_LABELS = new String[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    /**
+     * Nœud immuable : arêtes triées par premier caractère (labels[i] mène à children[i]),
+     * produits dont une clé se termine ici, top k du sous-arbre
+     */
+    private static final class Node {
+        final String[] labels;
+        final Node[] children;
+        final Suggestion[] values;
+        final Suggestion[] top;
+
+        Node(String[] labels, Node[] children, Suggestion[] values, Suggestion[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.values = values;
+            this.top = top;
+        }
+
+        boolean isEmpty() {
+            return values.length == 0 && children.length == 0;
+        }
+
+        // position de l'arête qui commence par c, ou -(point d'insertion) - 1
+        int indexOf(char c) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = labels[mid].charAt(0);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    private final Node root;
+    private final int k;
+
+    private SuggestionTrie(Node root, int k) {
+        this.root = root;
+        this.k = k;
+    }
+
+    static SuggestionTrie empty(int k) {
+        return new SuggestionTrie(new Node(NO_LABELS, NO_CHILDREN, NONE, NONE), k);
+    }
+
+    /**
+     * Construction en un passage à partir de toutes les clés (reconstruction complète) :
+     * après le tri, chaque groupe de clés qui partagent un caractère devient une arête étiquetée
+     * par leur plus long préfixe commun
+     */
+    static SuggestionTrie build(List<Map.Entry<String, Suggestion>> entries, int k) {
+        List<Map.Entry<String, Suggestion>> sorted = new ArrayList<>(entries);
+        sorted.sort(Map.Entry.comparingByKey());
+        SuggestionTrie empty = empty(k);
+        return sorted.isEmpty() ? empty : new SuggestionTrie(empty.build(sorted, 0, sorted.size(), 0), k);
+    }
+
+    /**
+     * Au plus {@code limit} complétions de {@code prefix} (déjà normalisé), les plus populaires d'abord ;
+     * jamais plus de k
+     */
+    List<Suggestion> complete(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int i = node.indexOf(prefix.charAt(position));
+            if (i < 0) {
+                return List.of();
+            }
+            String label = node.labels[i];
+            int remaining = prefix.length() - position;
+            // le préfixe se termine au milieu de l'arête : ses complétions sont celles de l'enfant
+            int compared = Math.min(remaining, label.length());
+            if (!prefix.regionMatches(position, label, 0, compared)) {
+                return List.of();
+            }
+            node = node.children[i];
+            position += compared;
+        }
+        return List.of(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+    }
+
+    /**
+     * Nouveau trie où {@code key} mène (aussi) à {@code suggestion} ; remplace la complétion du même produit
+     */
+    SuggestionTrie with(String key, Suggestion suggestion) {
+        return new SuggestionTrie(insert(root, key, 0, suggestion), k);
+    }
+
+    /**
+     * Nouveau trie où {@code key} ne mène plus au produit {@code id} (le même trie si elle n'y menait pas)
+     */
+    SuggestionTrie without(String key, long id) {
+        Node removed = remove(root, key, 0, id);
+        return removed == root ? this : new SuggestionTrie(removed, k);
+    }
+
+    private Node build(List<Map.Entry<String, Suggestion>> sorted, int from, int to, int depth) {
+        // les clés qui se terminent ici sont triées avant leurs prolongements
+        List<Suggestion> values = new ArrayList<>();
+        int i = from;
+        while (i < to && sorted.get(i).getKey().length() == depth) {
+            values.add(sorted.get(i).getValue());
+            i++;
+        }
+        List<String> labels = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (i < to) {
+            String first = sorted.get(i).getKey();
+            char c = first.charAt(depth);
+            int j = i + 1;
+            while (j < to && sorted.get(j).getKey().charAt(depth) == c) {
+                j++;
+            }
+            // clés triées : le préfixe commun du groupe est celui de sa première et de sa dernière clé
+            String last = sorted.get(j - 1).getKey();
+            int end = depth + 1;
+            while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+                end++;
+            }
+            labels.add(first.substring(depth, end));
+            children.add(build(sorted, i, j, end));
+            i = j;
+        }
+        Suggestion[] distinct = NONE;
+        for (Suggestion value : values) {
+            distinct = withValue(distinct, value);
+        }
+        return node(labels.toArray(NO_LABELS), children.toArray(NO_CHILDREN), distinct);
+    }
+
+    private Node insert(Node node, String key, int position, Suggestion suggestion) {
+        if (position == key.length()) {
+            return node(node.labels, node.children, withValue(node.values, suggestion));
+        }
+        int i = node.indexOf(key.charAt(position));
+        if (i < 0) {
+            int at = -(i + 1);
+            Node leaf = node(NO_LABELS, NO_CHILDREN, new Suggestion[]{suggestion});
+            return node(insertAt(node.labels, at, key.substring(position)), insertAt(node.children, at, leaf), node.values);
+        }
+        String label = node.labels[i];
+        int common = 1;
+        while (common < label.length() && position + common < key.length()
+                && label.charAt(common) == key.charAt(position + common)) {
+            common++;
+        }
+        if (common == label.length()) {
+            Node child = insert(node.children[i], key, position + common, suggestion);
+            return node(node.labels, replaceAt(node.children, i, child), node.values);
+        }
+        // la clé quitte l'arête après "common" caractères : l'arête est coupée par un nœud intermédiaire
+        Node split = node(new String[]{label.substring(common)}, new Node[]{node.children[i]}, NONE);
+        Node middle = insert(split, key, position + common, suggestion);
+        return node(replaceAt(node.labels, i, label.substring(0, common)), replaceAt(node.children, i, middle), node.values);
+    }
+
+    private Node remove(Node node, String key, int position, long id) {
+        if (position == key.length()) {
+            Suggestion[] values = withoutValue(node.values, id);
+            return values == node.values ? node : node(node.labels, node.children, values);
+        }
+        int i = node.indexOf(key.charAt(position));
+        if (i < 0 || !key.startsWith(node.labels[i], position)) {
+            return node;
+        }
+        String label = node.labels[i];
+        Node child = remove(node.children[i], key, position + label.length(), id);
+        if (child == node.children[i]) {
+            return node;
+        }
+        if (child.isEmpty()) {
+            return node(removeAt(node.labels, i), removeAt(node.children, i), node.values);
+        }
+        if (child.values.length == 0 && child.children.length == 1) {
+            // un nœud sans complétion propre et à un seul enfant est refondu dans son arête (le trie reste compact)
+            return node(replaceAt(node.labels, i, label + child.labels[0]), replaceAt(node.children, i, child.children[0]), node.values);
+        }
+        return node(node.labels, replaceAt(node.children, i, child), node.values);
+    }
+
+    // nœud avec son top k : complétions propres et top k des enfants, triés, un produit au plus une fois
+    private Node node(String[] labels, Node[] children, Suggestion[] values) {
+        int candidates = values.length;
+        for (Node child : children) {
+            candidates += child.top.length;
+        }
+        Suggestion[] ranked = Arrays.copyOf(values, candidates);
+        int filled = values.length;
+        for (Node child : children) {
+            System.arraycopy(child.top, 0, ranked, filled, child.top.length);
+            filled += child.top.length;
+        }
+        Arrays.sort(ranked, RANKING);
+        Suggestion[] top = new Suggestion[Math.min(k, candidates)];
+        int size = 0;
+        next:
+        for (Suggestion suggestion : ranked) {
+            if (size == top.length) {
+                break;
+            }
+            for (int i = 0; i < size; i++) {
+                if (top[i].id() == suggestion.id()) {
+                    continue next;
+                }
+            }
+            top[size++] = suggestion;
+        }
+        return new Node(labels, children, values, size == top.length ? top : Arrays.copyOf(top, size));
+    }
+
+    private static Suggestion[] withValue(Suggestion[] values, Suggestion suggestion) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].id() == suggestion.id()) {
+                Suggestion[] replaced = values.clone();
+                replaced[i] = suggestion;
+                return replaced;
+            }
+        }
+        Suggestion[] added = Arrays.copyOf(values, values.length + 1);
+        added[values.length] = suggestion;
+        return added;
+    }
+
+    private static Suggestion[] withoutValue(Suggestion[] values, long id) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].id() == id) {
+                return removeAt(values, i);
+            }
+        }
+        return values;
+    }
+
+    private static <T> T[] insertAt(T[] array, int index, T element) {
+        T[] copy = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        copy[index] = element;
+        return copy;
+    }
+
+    private static <T> T[] replaceAt(T[] array, int index, T element) {
+        T[] copy = array.clone();
+        copy[index] = element;
+        return copy;
+    }
+
+    private static <T> T[] removeAt(T[] array, int index) {
+        T[] copy = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+        return copy;
+    }
+}
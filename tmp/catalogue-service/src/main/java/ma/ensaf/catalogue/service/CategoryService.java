@@ -0,0 +1,119 @@
+package ma.ensaf.catalogue.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.cache.CategoryTreeCache;
+import ma.ensaf.catalogue.domain.Category;
+import ma.ensaf.catalogue.dto.CategoryNode;
+import ma.ensaf.catalogue.event.CategoryChangedEvent;
+import ma.ensaf.catalogue.repository.CategoryRepository;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<Category> findAll() {
+        log.debug("Fetching all categories");
+        return categoryRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Category> findById(Long id) {
+        log.debug("Fetching category with id: {}", id);
+        return categoryRepository.findById(id);
+    }
+
+    /**
+     * Arbre complet des catégories, servi depuis l'instantané en mémoire (aucune requête)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryNode> findTree() {
+        return categoryTreeCache.tree().roots();
+    }
+
+    public Category create(Category category) {
+        log.info("Creating new category: {}", category.getCode());
+
+        if (categoryRepository.existsByCode(category.getCode())) {
+            throw new IllegalArgumentException("Category with code " + category.getCode() + " already exists");
+        }
+        checkParent(category.getId(), category.getParentCategoryId());
+
+        Category created = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(created));
+        return created;
+    }
+
+    public Category update(Long id, Category categoryDetails) {
+        log.info("Updating category with id: {}", id);
+
+        Category category = categoryRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+
+        // le code est la clé référencée par les produits (Product.category) : il ne change plus après la création,
+        // sinon les produits de la catégorie sortiraient de l'arbre, des facettes et des filtres
+        if (categoryDetails.getCode() != null && !categoryDetails.getCode().equals(category.getCode())) {
+            throw new IllegalArgumentException("Category code " + category.getCode() + " cannot be changed");
+        }
+        checkParent(id, categoryDetails.getParentCategoryId());
+
+        category.setName(categoryDetails.getName());
+        category.setDescription(categoryDetails.getDescription());
+        category.setDisplayOrder(categoryDetails.getDisplayOrder());
+        category.setArchived(categoryDetails.isArchived());
+        category.setParentCategoryId(categoryDetails.getParentCategoryId());
+
+        Category updated = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(updated));
+        return updated;
+    }
+
+    public void deleteById(Long id) {
+        log.info("Deleting category with id: {}", id);
+
+        Category category = categoryRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+        if (categoryRepository.existsByParentCategoryId(id)) {
+            throw new IllegalArgumentException("Category " + id + " has subcategories");
+        }
+        if (productRepository.existsByCategory(category.getCode())) {
+            throw new IllegalArgumentException("Category " + category.getCode() + " still has products");
+        }
+
+        categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(Category.builder().id(id).build()));
+    }
+
+    /**
+     * Le parent doit exister et ne pas être dans le sous-arbre de la catégorie (sinon l'arbre aurait un cycle).
+     * Le sous-arbre est lu dans l'instantané en mémoire.
+     */
+    private void checkParent(Long id, Long parentId) {
+        if (parentId == null) {
+            return;
+        }
+        if (!categoryRepository.existsById(parentId)) {
+            throw new IllegalArgumentException("Parent category not found with id: " + parentId);
+        }
+        if (id != null && (Objects.equals(id, parentId) || categoryTreeCache.tree().subtreeOf(id).contains(parentId))) {
+            throw new IllegalArgumentException("Category " + id + " cannot be moved under its own subcategory " + parentId);
+        }
+    }
+}
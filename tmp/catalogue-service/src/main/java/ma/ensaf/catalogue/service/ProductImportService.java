@@ -0,0 +1,143 @@
+package ma.ensaf.catalogue.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ImportReport;
+import ma.ensaf.catalogue.dto.ImportRowResult;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Import de produits en masse.
+ *
+ * Le flux (tableau JSON ou NDJSON) est lu produit par produit et traité par lots :
+ * un lot = une transaction, une seule requête pour vérifier l'unicité des SKU,
+ * et des INSERT groupés par Hibernate (hibernate.jdbc.batch_size, ids pré-alloués par la séquence).
+ * Une ligne invalide est rejetée sans annuler le reste du lot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalogue.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public ImportReport importProducts(InputStream input) {
+        log.info("Importing products (chunk size: {})", chunkSize);
+        List<ImportRowResult> rows = new ArrayList<>();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        long read = 0;
+        try (MappingIterator<Product> products = objectMapper.readerFor(Product.class).readValues(input)) {
+            while (products.hasNext()) {
+                chunk.add(products.next());
+                read++;
+                if (chunk.size() == chunkSize) {
+                    rows.addAll(importChunk(read - chunk.size() + 1, chunk));
+                    chunk.clear();
+                }
+            }
+        } catch (JacksonException e) {
+            // on arrête la lecture à la première ligne illisible, les lignes déjà lues sont importées
+            rows.addAll(importChunk(read - chunk.size() + 1, chunk));
+            chunk.clear();
+            rows.add(ImportRowResult.rejected(read + 1, null, "Malformed product: " + e.getOriginalMessage()));
+        }
+        rows.addAll(importChunk(read - chunk.size() + 1, chunk));
+        ImportReport report = ImportReport.of(rows);
+        log.info("Import done: {} created, {} rejected", report.created(), report.rejected());
+        return report;
+    }
+
+    private List<ImportRowResult> importChunk(long firstLine, List<Product> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return transactionTemplate.execute(status -> insertChunk(firstLine, chunk));
+        } catch (DataAccessException | PersistenceException e) {
+            // le lot entier est annulé (ex. SKU inséré entre-temps par une autre requête) ;
+            // le message de l'exception (SQL, contrainte) reste dans les logs, le client reçoit une raison générique
+            String error = "Chunk rolled back by the database, retry the rows of this chunk";
+            log.warn("Import chunk starting at line {} rolled back", firstLine, e);
+            List<ImportRowResult> rows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                rows.add(ImportRowResult.rejected(firstLine + i, chunk.get(i).getSku(), error));
+            }
+            return rows;
+        }
+    }
+
+    private List<ImportRowResult> insertChunk(long firstLine, List<Product> chunk) {
+        Set<String> skus = new HashSet<>();
+        for (Product product : chunk) {
+            if (product.getSku() != null) {
+                skus.add(product.getSku());
+            }
+        }
+        Set<String> existingSkus = productRepository.findExistingSkus(skus);
+        Set<String> seenSkus = new HashSet<>();
+        List<ImportRowResult> rows = new ArrayList<>(chunk.size());
+        List<Product> created = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = chunk.get(i);
+            long line = firstLine + i;
+            String error = validate(product);
+            if (error == null && existingSkus.contains(product.getSku())) {
+                error = "Product with SKU " + product.getSku() + " already exists";
+            }
+            if (error == null && !seenSkus.add(product.getSku())) {
+                error = "Duplicate SKU " + product.getSku() + " in import";
+            }
+            if (error != null) {
+                rows.add(ImportRowResult.rejected(line, product.getSku(), error));
+                continue;
+            }
+            // id, version et dates d'audit sont attribués par le service, jamais repris du fichier
+            product.setId(null);
+            product.setVersion(null);
+            product.setCreatedAt(null);
+            product.setUpdatedAt(null);
+            entityManager.persist(product);
+            created.add(product);
+            rows.add(ImportRowResult.created(line, product.getSku(), product.getId()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        created.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(product)));
+        return rows;
+    }
+
+    private static String validate(Product product) {
+        if (product.getSku() == null || product.getSku().isBlank()) {
+            return "SKU is required";
+        }
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (product.getPrice() == null) {
+            return "Price is required";
+        }
+        return null;
+    }
+}
@@ -1,15 +1,52 @@
 package ma.ensaf.catalogue.service;
 
+import jakarta.persistence.EntityManager;
+import ma.ensaf.catalogue.cache.CategoryTreeCache;
+import ma.ensaf.catalogue.config.CacheConfig;
 import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryFacet;
+import ma.ensaf.catalogue.dto.ProductBatchRequest;
+import ma.ensaf.catalogue.dto.ProductBatchResponse;
+import ma.ensaf.catalogue.dto.ProductFilter;
+import ma.ensaf.catalogue.dto.ProductListVersion;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.dto.StockReservationRequest;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.facets.CategoryFacets;
+import ma.ensaf.catalogue.metrics.CatalogueMetrics;
 import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.repository.ProductSpecifications;
+import ma.ensaf.catalogue.search.ProductPriceIndex;
+import ma.ensaf.catalogue.search.ProductSuggestIndex;
+import ma.ensaf.catalogue.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+// écritures par défaut ; chaque lecture est marquée readOnly (pas de flush ni de dirty checking,
+// et routage vers la réplique quand elle est configurée)
 @Transactional
 @RequiredArgsConstructor
 @Slf4j
@@ -17,6 +54,14 @@ public class ProductService {
 
     // injection des dépendances
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductPriceIndex productPriceIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final CategoryFacets categoryFacets;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogueMetrics metrics;
 //    @Autowired
 //    private ProductRepository productRepository;
 
@@ -24,16 +69,124 @@ public class ProductService {
 //        this.productRepository = productRepository;
 //    }
 
-    public List<Product> findAll() {
-        log.info("Fetching all products");
-        return productRepository.findAll();
+    // Logs des lectures en debug : appelés à chaque requête, ils coûtent du débit en info.
+    // Garde isDebugEnabled() quand les arguments alloueraient (boxing, tableau varargs).
+
+    /**
+     * Retourne au plus {@code size} produits dont l'id est strictement supérieur à {@code afterId}
+     * (pagination par curseur, triée par id)
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSummary> findPage(Long afterId, int size) {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching products after id: {} (size: {})", afterId, size);
+        }
+        List<ProductSummary> products = productRepository.findSummariesAfterId(afterId == null ? 0L : afterId, Limit.of(size));
+        // parcours de la clé primaire à partir du curseur : on ne lit que les lignes renvoyées
+        metrics.resultsReturned("page", products.size());
+        metrics.rowsScanned("page", products.size());
+        return products;
+    }
+
+    /**
+     * Empreinte de la page {@code findPage(afterId, size)}, sans la charger
+     */
+    @Transactional(readOnly = true)
+    public ProductListVersion findPageVersion(Long afterId, int size) {
+        return productRepository.findPageVersion(afterId == null ? 0L : afterId, size);
+    }
+
+    /**
+     * Parcourt tout le catalogue en flux et passe chaque produit au consumer dès qu'il est lu.
+     * Chaque produit est détaché après traitement pour que le contexte de persistance
+     * ne grossisse pas avec le nombre de lignes.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Product> consumer) {
+        log.debug("Streaming all products");
+        long[] streamed = {0};
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+                streamed[0]++;
+            });
+        } finally {
+            metrics.resultsReturned("stream", streamed[0]);
+            metrics.rowsScanned("stream", streamed[0]);
+        }
     }
 
+    // Lecture via le cache "products" ; update/deleteById lisent directement le repository
+    // pour ne jamais modifier l'instance partagée en cache.
+    // Transaction non read-only : avec une réplique (ReadReplicaConfig), le chargement du cache lit le primaire.
+    // Il suit souvent une invalidation après écriture : lu sur une réplique en retard, l'ancien état
+    // resterait en cache jusqu'à expiration.
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, sync = true)
+    @Transactional
     public Optional<Product> findById(Long id) {
-        log.info("Fetching product with id: {}", id);
+        log.debug("Fetching product with id: {}", id);
         return productRepository.findById(id);
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_SKU, sync = true)
+    @Transactional
+    public Optional<Product> findBySku(String sku) {
+        log.debug("Fetching product with sku: {}", sku);
+        return productRepository.findBySku(sku);
+    }
+
+    /**
+     * Résout des produits par id et / ou par sku en une seule requête IN (projection ProductSummary).
+     * Les produits sont renvoyés dans l'ordre de la demande, sans doublon ;
+     * les ids et skus inconnus sont listés à part.
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchResponse findBatch(ProductBatchRequest request) {
+        Set<Long> ids = request.ids() == null ? Set.of() : new LinkedHashSet<>(request.ids());
+        Set<String> skus = request.skus() == null ? Set.of() : new LinkedHashSet<>(request.skus());
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching batch of {} ids and {} skus", ids.size(), skus.size());
+        }
+
+        List<ProductSummary> found;
+        if (ids.isEmpty() && skus.isEmpty()) {
+            found = List.of();
+        } else if (skus.isEmpty()) {
+            found = productRepository.findSummariesByIdIn(ids);
+        } else if (ids.isEmpty()) {
+            found = productRepository.findSummariesBySkuIn(skus);
+        } else {
+            found = productRepository.findSummariesByIdInOrSkuIn(ids, skus);
+        }
+
+        Map<Long, ProductSummary> byId = found.stream()
+            .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        Map<String, ProductSummary> bySku = found.stream()
+            .collect(Collectors.toMap(ProductSummary::sku, Function.identity()));
+        Set<ProductSummary> products = new LinkedHashSet<>();
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingSkus = new ArrayList<>();
+        for (Long id : ids) {
+            ProductSummary product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String sku : skus) {
+            ProductSummary product = bySku.get(sku);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingSkus.add(sku);
+            }
+        }
+        metrics.resultsReturned("batch", products.size());
+        return new ProductBatchResponse(List.copyOf(products), missingIds, missingSkus);
+    }
+
     public Product create(Product product) {
         log.info("Creating new product: {}", product.getName());
 
@@ -41,15 +194,30 @@ public class ProductService {
             throw new IllegalArgumentException("Product with SKU " + product.getSku() + " already exists");
         }
 
-        return productRepository.save(product);
+        Product created = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(created));
+        return created;
     }
 
+    /**
+     * Remplace les champs modifiables du produit, stock compris. {@code productDetails.version} est obligatoire :
+     * c'est la version lue par le client, sans elle un PUT construit sur une lecture ancienne écraserait
+     * le stock décrémenté entre-temps par les réservations.
+     */
     public Product update(Long id, Product productDetails) {
         log.info("Updating product with id: {}", id);
+        if (productDetails.getVersion() == null) {
+            throw new IllegalArgumentException("The version of the product is required to update it");
+        }
 
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
 
+        // le client a lu une version antérieure : on refuse plutôt que d'écraser les écritures intermédiaires
+        if (!productDetails.getVersion().equals(product.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
@@ -57,24 +225,253 @@ public class ProductService {
         product.setCategory(productDetails.getCategory());
         product.setAvailable(productDetails.isAvailable());
 
-        return productRepository.save(product);
+        Product updated = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated));
+        return updated;
+    }
+
+    /**
+     * Réserve {@code quantity} unités du stock en un seul UPDATE conditionnel : sous concurrence,
+     * le stock ne devient jamais négatif et aucune réservation n'est perdue.
+     * Retourne le produit à jour, ou Optional.empty() si le stock disponible est insuffisant.
+     */
+    public Optional<Product> reserveStock(Long id, int quantity) {
+        if (log.isDebugEnabled()) {
+            log.debug("Reserving {} units of product with id: {}", quantity, id);
+        }
+        checkQuantity(quantity);
+
+        if (productRepository.reserveStock(id, quantity) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(stockChanged(id));
+    }
+
+    /**
+     * Réserve toutes les lignes d'une commande dans une seule transaction : si une ligne manque de stock,
+     * rien n'est réservé (Optional vide). Les lignes sont traitées par id croissant, pour que deux commandes
+     * sur les mêmes produits prennent les verrous de ligne dans le même ordre (pas d'interblocage).
+     */
+    public Optional<List<ProductSummary>> reserveStock(StockReservationRequest request) {
+        // quantités cumulées par produit, triées par id
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservationRequest.Line line : request.lines()) {
+            checkQuantity(line.quantity());
+            quantities.merge(Objects.requireNonNull(line.productId(), "productId"), line.quantity(), Integer::sum);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Reserving stock for {} products", quantities.size());
+        }
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (productRepository.reserveStock(line.getKey(), line.getValue()) == 0) {
+                if (!productRepository.existsById(line.getKey())) {
+                    throw new RuntimeException("Product not found with id: " + line.getKey());
+                }
+                // annule les lignes déjà réservées (aucun événement n'a encore été publié)
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return Optional.empty();
+            }
+        }
+
+        List<Product> products = productRepository.findAllById(quantities.keySet());
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.updated(product)));
+        return Optional.of(products.stream()
+            .sorted(Comparator.comparing(Product::getId))
+            .map(product -> new ProductSummary(product.getId(), product.getSku(), product.getName(),
+                product.getPrice(), product.getStockQuantity(), product.isAvailable()))
+            .toList());
+    }
+
+    /**
+     * Remet en stock {@code quantity} unités (réservation annulée), de façon atomique
+     */
+    public Product releaseStock(Long id, int quantity) {
+        if (log.isDebugEnabled()) {
+            log.debug("Releasing {} units of product with id: {}", quantity, id);
+        }
+        checkQuantity(quantity);
+
+        if (productRepository.releaseStock(id, quantity) == 0) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+        return stockChanged(id);
     }
 
     public void deleteById(Long id) {
         log.info("Deleting product with id: {}", id);
 
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Product not found with id: " + id);
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSummary> findByCategory(String category) {
+        log.debug("Fetching products of category: {}", category);
+        List<ProductSummary> products = productRepository.findSummariesByCategory(category);
+        metrics.resultsReturned("category", products.size());
+        return products;
+    }
+
+    /**
+     * Produits de la catégorie {@code categoryId} et de toutes ses sous-catégories, au plus {@code limit}, triés par id
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSummary> findByCategoryTree(Long categoryId, int limit) {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching products of category tree: {} (limit: {})", categoryId, limit);
+        }
+        Set<String> codes = categoryTreeCache.tree().subtreeCodesOf(categoryId);
+        if (codes.isEmpty()) {
+            throw new RuntimeException("Category not found with id: " + categoryId);
+        }
+        List<ProductSummary> products = productRepository.findSummariesByCategoryIn(codes, Limit.of(limit));
+        metrics.resultsReturned("category-tree", products.size());
+        return products;
+    }
+
+    /**
+     * Empreinte de {@code findByCategory(category)}, sans charger les produits
+     */
+    @Transactional(readOnly = true)
+    public ProductListVersion findCategoryVersion(String category) {
+        return productRepository.findCategoryVersion(category);
+    }
+
+    /**
+     * Agrégats par catégorie (facettes), servis depuis la mémoire ; GROUP BY en base tant qu'ils ne sont pas construits
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryFacet> findFacets() {
+        log.debug("Fetching category facets");
+        List<CategoryFacet> facets = categoryFacets.isReady() ? categoryFacets.facets() : productRepository.findCategoryFacets();
+        metrics.resultsReturned("facets", facets.size());
+        return facets;
+    }
+
+    /**
+     * Filtre combiné (catégorie, plage de prix, disponibilité) en une seule requête,
+     * triée et limitée à {@code limit} produits
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSummary> findByFilter(ProductFilter filter, Sort sort, int limit) {
+        if (log.isDebugEnabled()) {
+            log.debug("Filtering products: {} (sort: {}, limit: {})", filter, sort, limit);
+        }
+        List<ProductSummary> products = productRepository.findBy(ProductSpecifications.matching(filter),
+            query -> query.as(ProductSummary.class).sortBy(sort).limit(limit).all());
+        metrics.resultsReturned("filter", products.size());
+        return products;
+    }
+
+    /**
+     * Produits dont le prix est dans [minPrice, maxPrice] (bornes optionnelles), par prix croissant puis id,
+     * après en avoir sauté {@code offset}. La page est résolue dans l'index de prix en mémoire : seules
+     * ses lignes sont lues en base. Tant que l'index n'est pas construit, on retombe sur le filtre SQL.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSummary> findByPriceRange(Double minPrice, Double maxPrice, Boolean available, int offset, int limit) {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching products priced between {} and {} (offset: {}, limit: {})", minPrice, maxPrice, offset, limit);
+        }
+        checkPriceRange(minPrice, maxPrice);
+        if (offset < 0 || limit < 1 || offset > Integer.MAX_VALUE - limit) {
+            throw new IllegalArgumentException("Invalid page: offset " + offset + ", limit " + limit);
+        }
+        List<ProductSummary> products;
+        if (!productPriceIndex.isReady()) {
+            products = productRepository.findBy(ProductSpecifications.matching(new ProductFilter(null, minPrice, maxPrice, available)),
+                    query -> query.as(ProductSummary.class).sortBy(Sort.by("price", "id")).limit(offset + limit).all())
+                .stream().skip(offset).toList();
+        } else {
+            // les produits examinés par l'index sont comptés par ProductPriceIndex
+            List<Long> ids = productPriceIndex.find(minPrice, maxPrice, available, offset, limit);
+            Map<Long, ProductSummary> productsById = ids.isEmpty() ? Map.of() : productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+            products = ids.stream().map(productsById::get).filter(Objects::nonNull).toList();
+        }
+        metrics.resultsReturned("price-range", products.size());
+        return products;
+    }
+
+    /**
+     * Nombre de produits de la plage (histogramme du slider de prix), sans lire de ligne
+     */
+    @Transactional(readOnly = true)
+    public long countByPriceRange(Double minPrice, Double maxPrice, Boolean available) {
+        checkPriceRange(minPrice, maxPrice);
+        if (!productPriceIndex.isReady()) {
+            return productRepository.count(ProductSpecifications.matching(new ProductFilter(null, minPrice, maxPrice, available)));
+        }
+        return productPriceIndex.count(minPrice, maxPrice, available);
+    }
+
+    /**
+     * Recherche par mot-clé (sous-chaîne de name, description, category ou sku),
+     * servie par l'index inversé en mémoire et classée par pertinence.
+     * Tant que l'index n'est pas construit, on retombe sur la requête LIKE.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSummary> findByKeyword(String keyword, int limit) {
+        log.debug("Searching products with keyword: {}", keyword);
+        List<ProductSummary> products;
+        if (!productSearchIndex.isReady()) {
+            products = productRepository.findSummariesByKeyword(keyword, Limit.of(limit));
+            metrics.rowsScanned("search", products.size());
+        } else {
+            // les produits examinés par l'index sont comptés par ProductSearchIndex
+            List<Long> ids = productSearchIndex.search(keyword, limit);
+            Map<Long, ProductSummary> productsById = ids.isEmpty() ? Map.of() : productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+            products = ids.stream().map(productsById::get).filter(Objects::nonNull).toList();
         }
+        metrics.resultsReturned("search", products.size());
+        return products;
+    }
 
-        productRepository.deleteById(id);
+    /**
+     * Autocomplétion : produits disponibles dont le nom, un mot du nom ou le SKU commence par {@code prefix},
+     * les plus vendus d'abord. Servie entièrement par le trie en mémoire, sans lecture en base ;
+     * tant qu'il n'est pas construit, on retombe sur une requête de préfixe du nom ou du SKU, par unités vendues
+     * (sans la complétion des mots suivants du nom).
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        log.debug("Suggesting products for prefix: {}", prefix);
+        List<ProductSuggestion> suggestions;
+        if (!productSuggestIndex.isReady()) {
+            suggestions = productRepository.findSuggestionsByPrefix(prefix.strip(), Limit.of(limit));
+            metrics.rowsScanned("suggest", suggestions.size());
+        } else {
+            suggestions = productSuggestIndex.suggest(prefix, limit);
+        }
+        metrics.resultsReturned("suggest", suggestions.size());
+        return suggestions;
     }
 
-    public List<Product> findByCategory(String category) {
-        return productRepository.findByCategory(category);
+    private static void checkPriceRange(Double minPrice, Double maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must be lower than or equal to maxPrice");
+        }
     }
 
-    public List<Product> findByKeyword(String keyword) {
-        return productRepository.findByKeyword(keyword);
+    private static void checkQuantity(int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+
+    // relit l'état après l'UPDATE (le contexte de persistance a été vidé) et notifie caches et index
+    private Product stockChanged(Long id) {
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product));
+        return product;
     }
-}
\ No newline at end of file
+}
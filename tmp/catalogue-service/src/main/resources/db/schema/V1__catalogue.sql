@@ -0,0 +1,67 @@
+-- Schéma du catalogue, version 1 (profil fast-start : remplace ddl-auto de Hibernate).
+-- Toute modification d'entité passe par un nouveau script V2__..., ajouté à spring.sql.init.schema-locations ;
+-- FastStartSchemaTest valide le schéma obtenu contre le mapping JPA.
+-- Séquences "<table>_seq" par blocs de 50 : même allocation que @GeneratedValue(SEQUENCE) dans BaseEntity.
+
+create sequence if not exists products_seq start with 1 increment by 50;
+create sequence if not exists categories_seq start with 1 increment by 50;
+create sequence if not exists product_outbox_seq start with 1 increment by 50;
+
+create table if not exists products (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(1000),
+    sku varchar(255) not null unique,
+    price float(53) not null,
+    stock_quantity integer,
+    category varchar(255),
+    available boolean not null,
+    sold_quantity bigint default 0 not null,
+    version bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create index if not exists idx_products_category_available_price on products (category, available, price);
+create index if not exists idx_products_available_price on products (available, price);
+
+create table if not exists categories (
+    id bigint not null,
+    name varchar(255) not null,
+    code varchar(255) not null unique,
+    description varchar(255),
+    display_order integer,
+    archived boolean not null,
+    parent_category_id bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create index if not exists idx_categories_parent on categories (parent_category_id);
+
+create table if not exists product_outbox (
+    id bigint not null,
+    type enum ('CREATED', 'DELETED', 'UPDATED') not null,
+    product_id bigint not null,
+    sku varchar(255),
+    price float(53),
+    stock_quantity integer,
+    available boolean not null,
+    product_version bigint,
+    occurred_at timestamp(6) not null,
+    position bigint,
+    published_at timestamp(6),
+    primary key (id)
+);
+
+-- une position n'est attribuée qu'une fois, même avec plusieurs instances (voir ProductOutboxPublisher)
+create unique index if not exists idx_product_outbox_position on product_outbox (position);
+
+-- ligne unique verrouillée pour attribuer un lot de positions, créée au démarrage (ProductOutboxState)
+create table if not exists product_outbox_state (
+    id bigint not null,
+    last_position bigint not null,
+    primary key (id)
+);
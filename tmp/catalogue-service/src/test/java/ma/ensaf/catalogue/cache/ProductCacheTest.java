@@ -0,0 +1,81 @@
+package ma.ensaf.catalogue.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.ensaf.catalogue.config.CacheConfig;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        // Given
+        Product product = productService.create(product("CACHE-001", 100.0));
+        double hitsBefore = hits(CacheConfig.PRODUCTS);
+
+        // When
+        productService.findById(product.getId());
+        productService.findById(product.getId());
+
+        // Then
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(product.getId())).isNotNull();
+        assertThat(hits(CacheConfig.PRODUCTS)).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    void shouldNeverReturnStalePriceAfterUpdate() {
+        // Given
+        Product product = productService.create(product("CACHE-002", 100.0));
+        assertThat(productService.findById(product.getId())).get().extracting(Product::getPrice).isEqualTo(100.0);
+        assertThat(productService.findBySku("CACHE-002")).get().extracting(Product::getPrice).isEqualTo(100.0);
+
+        // When
+        Product cheaper = product("CACHE-002", 80.0);
+        cheaper.setVersion(product.getVersion());
+        productService.update(product.getId(), cheaper);
+
+        // Then
+        assertThat(productService.findById(product.getId())).get().extracting(Product::getPrice).isEqualTo(80.0);
+        assertThat(productService.findBySku("CACHE-002")).get().extracting(Product::getPrice).isEqualTo(80.0);
+    }
+
+    @Test
+    void shouldInvalidateOnDelete() {
+        // Given
+        Product product = productService.create(product("CACHE-003", 100.0));
+        productService.findById(product.getId());
+        productService.findBySku("CACHE-003");
+
+        // When
+        productService.deleteById(product.getId());
+
+        // Then
+        assertThat(productService.findById(product.getId())).isEmpty();
+        assertThat(productService.findBySku("CACHE-003")).isEmpty();
+    }
+
+    private double hits(String cacheName) {
+        return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", "hit")
+            .functionCounter().count();
+    }
+
+    private static Product product(String sku, double price) {
+        return Product.builder().name("Cached " + sku).sku(sku).price(price).available(true).build();
+    }
+}
@@ -0,0 +1,41 @@
+package ma.ensaf.catalogue.config;
+
+import ma.ensaf.catalogue.domain.Category;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.service.CategoryService;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Profil fast-start sur sa propre base : le schéma vient de db/schema/*.sql, et Hibernate le valide
+// contre le mapping (ddl-auto=validate, avec lecture des métadonnées JDBC réactivée pour la validation)
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:fast_start",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@ActiveProfiles("fast-start")
+class FastStartSchemaTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void shouldMatchMappingAndAcceptWrites() {
+        // When
+        Category category = categoryService.create(Category.builder().name("Fast").code("FAST").build());
+        Product product = productService.create(Product.builder()
+            .name("Fast start").sku("FAST-001").price(1.0).stockQuantity(1).category(category.getCode()).build());
+
+        // Then
+        assertThat(productService.reserveStock(product.getId(), 1)).isPresent();
+        assertThat(productService.findByCategoryTree(category.getId(), 10)).hasSize(1);
+    }
+}
@@ -0,0 +1,120 @@
+package ma.ensaf.catalogue.config;
+
+import ma.ensaf.catalogue.cache.CategoryTreeCache;
+import ma.ensaf.catalogue.domain.Category;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryFacet;
+import ma.ensaf.catalogue.dto.ProductBatchRequest;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.facets.CategoryFacets;
+import ma.ensaf.catalogue.search.ProductPriceIndex;
+import ma.ensaf.catalogue.search.ProductSearchIndex;
+import ma.ensaf.catalogue.search.ProductSuggestIndex;
+import ma.ensaf.catalogue.service.CategoryService;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Deux bases H2 distinctes jouent le primaire et la réplique : une ligne présente dans une seule
+// des deux montre de quel côté chaque transaction a lu
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing_primary",
+    "catalogue.datasource.replica.jdbc-url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+    "catalogue.datasource.replica.username=sa"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private CategoryFacets categoryFacets;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    void shouldSendReadOnlyTransactionsToReplicaAndWritesToPrimary() {
+        // Given : un produit écrit par le service (primaire), un autre présent seulement sur la réplique
+        Product written = productService.create(Product.builder()
+            .name("Primary only").sku("ROUTE-PRIMARY").price(10.0).category("routing").available(true).build());
+        new JdbcTemplate(replicaDataSource).update("insert into products (id, name, sku, price, category, available, version) "
+            + "values (100000, 'Replica only', 'ROUTE-REPLICA', 20.0, 'routing', true, 0)");
+
+        // When / Then : les lectures readOnly ne voient que la réplique
+        assertThat(productService.findByCategory("routing")).extracting(ProductSummary::sku)
+            .containsExactly("ROUTE-REPLICA");
+        assertThat(productService.findBatch(new ProductBatchRequest(List.of(written.getId(), 100000L), null)).missingIds())
+            .containsExactly(written.getId());
+
+        // les transactions en écriture (et les chargements du cache) lisent le primaire
+        assertThat(productService.findById(written.getId())).get().extracting(Product::getSku).isEqualTo("ROUTE-PRIMARY");
+        assertThat(productService.findById(100000L)).isEmpty();
+        assertThat(productService.reserveStock(written.getId(), 1)).isEmpty();
+    }
+
+    @Test
+    void shouldRebuildDerivedIndexesFromPrimary() {
+        // Given : un produit sur le primaire, un autre présent seulement sur la réplique (une réplique en retard
+        // verrait l'inverse : la ligne d'avant une écriture)
+        Product written = productService.create(Product.builder()
+            .name("Primary rebuild").sku("REBUILD-PRIMARY").price(30_001.0).category("rebuild").available(true).build());
+        new JdbcTemplate(replicaDataSource).update("insert into products (id, name, sku, price, category, available, version) "
+            + "values (100001, 'Replica rebuild', 'REBUILD-REPLICA', 30002.0, 'rebuild', true, 0)");
+
+        // When
+        categoryFacets.rebuild();
+        productSearchIndex.rebuild();
+        productPriceIndex.rebuild();
+        productSuggestIndex.rebuild();
+
+        // Then : seul le produit du primaire est indexé, et la réconciliation ne voit aucun écart
+        assertThat(categoryFacets.facets()).filteredOn(facet -> "rebuild".equals(facet.category()))
+            .extracting(CategoryFacet::productCount).containsExactly(1L);
+        assertThat(categoryFacets.reconcile()).isZero();
+        assertThat(productSearchIndex.search("REBUILD", 10)).containsExactly(written.getId());
+        assertThat(productPriceIndex.find(30_000.0, 30_010.0, null, 0, 10)).containsExactly(written.getId());
+        assertThat(productSuggestIndex.suggest("rebuild", 10)).extracting(ProductSuggestion::id)
+            .containsExactly(written.getId());
+    }
+
+    @Test
+    void shouldBuildCategoryTreeFromPrimary() {
+        // Given : une catégorie écrite par le service (primaire), une autre présente seulement sur la réplique
+        Category written = categoryService.create(Category.builder().name("Primary tree").code("route-tree-primary").build());
+        new JdbcTemplate(replicaDataSource).update("insert into categories (id, archived, code, name) "
+            + "values (100000, false, 'route-tree-replica', 'Replica tree')");
+
+        // When : reconstruction hors de toute transaction, comme au démarrage
+        categoryTreeCache.rebuild();
+
+        // Then
+        assertThat(categoryTreeCache.tree().contains(written.getId())).isTrue();
+        assertThat(categoryTreeCache.tree().contains(100000L)).isFalse();
+    }
+}
@@ -0,0 +1,118 @@
+package ma.ensaf.catalogue.controller;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+class ProductConditionalGetTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ProductService productService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedProductUntilItIsUpdated() throws Exception {
+        // Given
+        Product product = productService.create(product("ETAG-001", "etag-product"));
+        String uri = "/api/v1/products/" + product.getId();
+        String eTag = mockMvc.perform(get(uri))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"" + product.getId() + "-0\"");
+
+        // When / Then
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        productService.reserveStock(product.getId(), 1);
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + product.getId() + "-1\""));
+    }
+
+    @Test
+    void shouldRequireVersionOnUpdate() throws Exception {
+        // Given
+        Product product = productService.create(product("ETAG-010", "etag-update"));
+        String uri = "/api/v1/products/" + product.getId();
+        String body = "{\"name\": \"renamed\", \"sku\": \"ETAG-010\", \"price\": 10.0, \"stockQuantity\": 50, \"available\": true";
+
+        // When / Then : sans version, 428 ; avec une version périmée, 409 ; avec la version lue, 200
+        mockMvc.perform(put(uri).contentType(MediaType.APPLICATION_JSON).content(body + "}"))
+            .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(put(uri).contentType(MediaType.APPLICATION_JSON).content(body + ", \"version\": 7}"))
+            .andExpect(status().isConflict());
+        mockMvc.perform(put(uri).contentType(MediaType.APPLICATION_JSON).content(body + ", \"version\": " + product.getVersion() + "}"))
+            .andExpect(status().isOk());
+        assertThat(productService.findById(product.getId())).get().extracting(Product::getName).isEqualTo("renamed");
+    }
+
+    @Test
+    void shouldRevalidateCategoryListOnAdditionsAndDeletions() throws Exception {
+        // Given
+        Product first = productService.create(product("ETAG-002", "etag-category"));
+        productService.create(product("ETAG-003", "etag-category"));
+        String uri = "/api/v1/products/category/etag-category";
+        String eTag = eTag(uri);
+
+        // When / Then
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+
+        productService.deleteById(first.getId());
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isOk());
+
+        String afterDelete = eTag(uri);
+        productService.create(product("ETAG-004", "etag-category"));
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, afterDelete)).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldRevalidatePageWhenOneOfItsProductsChanges() throws Exception {
+        // Given
+        Product product = productService.create(product("ETAG-005", "etag-page"));
+        String uri = "/api/v1/products?after=" + (product.getId() - 1) + "&size=1";
+        String eTag = eTag(uri);
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+
+        // When
+        productService.releaseStock(product.getId(), 3);
+
+        // Then
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].stockQuantity").value(8));
+    }
+
+    private String eTag(String uri) throws Exception {
+        return mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static Product product(String sku, String category) {
+        return Product.builder().name("Etag " + sku).sku(sku).price(10.0).stockQuantity(5).category(category).available(true).build();
+    }
+}
@@ -0,0 +1,103 @@
+package ma.ensaf.catalogue.facets;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryFacet;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class CategoryFacetsTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryFacets categoryFacets;
+
+    @Test
+    void shouldFollowCreatesUpdatesAndDeletesIncrementally() {
+        // Given
+        Product cheap = productService.create(product("FACET-001", "facet-tools", 5.0, 0));
+        productService.create(product("FACET-002", "facet-tools", 20.0, 3));
+        Product moved = productService.create(product("FACET-003", "facet-tools", 50.0, 1));
+        assertThat(facet("facet-tools")).contains(new CategoryFacet("facet-tools", 3, 2, 5.0, 50.0));
+
+        // When
+        moved.setCategory("facet-garden");
+        productService.update(moved.getId(), moved);
+        productService.deleteById(cheap.getId());
+        productService.reserveStock(moved.getId(), 1);
+
+        // Then
+        assertThat(facet("facet-tools")).contains(new CategoryFacet("facet-tools", 1, 1, 20.0, 20.0));
+        assertThat(facet("facet-garden")).contains(new CategoryFacet("facet-garden", 1, 0, 50.0, 50.0));
+        assertThat(categoryFacets.facets()).containsExactlyInAnyOrderElementsOf(productRepository.findCategoryFacets());
+    }
+
+    @Test
+    void shouldRebuildWhenReconciliationFindsDrift() {
+        // Given : écriture directe dans le repository, sans événement
+        productRepository.save(product("FACET-004", "facet-drift", 10.0, 1));
+        assertThat(facet("facet-drift")).isEmpty();
+
+        // When
+        int drifted = categoryFacets.reconcile();
+
+        // Then
+        assertThat(drifted).isPositive();
+        assertThat(facet("facet-drift")).contains(new CategoryFacet("facet-drift", 1, 1, 10.0, 10.0));
+        assertThat(categoryFacets.reconcile()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreUpdateDeliveredAfterDelete() {
+        // Given : un produit modifié puis supprimé
+        Product created = productService.create(product("FACET-005", "facet-late", 10.0, 1));
+        created.setPrice(12.0);
+        Product updated = productService.update(created.getId(), created);
+        productService.deleteById(updated.getId());
+
+        // When : l'événement de la modification arrive après celui de la suppression
+        categoryFacets.onProductChanged(ProductChangedEvent.updated(updated));
+
+        // Then
+        assertThat(facet("facet-late")).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreOlderUpdateAfterProductLeavesItsCategory() {
+        // Given : un produit modifié, puis retiré de toute catégorie
+        Product created = productService.create(product("FACET-006", "facet-left", 10.0, 1));
+        created.setPrice(12.0);
+        Product older = productService.update(created.getId(), created);
+        Product uncategorized = product("FACET-006", null, 12.0, 1);
+        uncategorized.setVersion(older.getVersion());
+        productService.update(older.getId(), uncategorized);
+
+        // When : l'événement de la modification précédente arrive en dernier
+        categoryFacets.onProductChanged(ProductChangedEvent.updated(older));
+
+        // Then : le produit ne revient pas dans son ancienne catégorie
+        assertThat(facet("facet-left")).isEmpty();
+        assertThat(categoryFacets.reconcile()).isZero();
+    }
+
+    private Optional<CategoryFacet> facet(String category) {
+        return productService.findFacets().stream().filter(facet -> facet.category().equals(category)).findFirst();
+    }
+
+    private static Product product(String sku, String category, double price, int stock) {
+        return Product.builder().name("Facet " + sku).sku(sku).price(price).stockQuantity(stock).category(category).available(true).build();
+    }
+}
@@ -0,0 +1,59 @@
+package ma.ensaf.catalogue.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class CatalogueMetricsTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldTimeRepositoryQueriesWithPercentiles() {
+        // Given
+        productService.create(Product.builder().name("Metered").sku("METRICS-001").price(1.0).build());
+
+        // When
+        productService.findPage(null, 10);
+
+        // Then
+        Timer timer = meterRegistry.get("spring.data.repository.invocations")
+            .tag("repository", "ProductRepository")
+            .tag("method", "findSummariesAfterId")
+            .timer();
+        assertThat(timer.count()).isPositive();
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(3);
+    }
+
+    @Test
+    void shouldCountResultsReturnedAndRowsScanned() {
+        // Given
+        productService.create(Product.builder().name("Metered search").sku("METRICS-002").price(1.0).build());
+        double returnedBefore = count(CatalogueMetrics.RESULTS_RETURNED, "search");
+        double scannedBefore = count(CatalogueMetrics.ROWS_SCANNED, "search");
+
+        // When
+        int found = productService.findByKeyword("METRICS-002", 10).size();
+
+        // Then
+        assertThat(found).isEqualTo(1);
+        assertThat(count(CatalogueMetrics.RESULTS_RETURNED, "search")).isEqualTo(returnedBefore + 1);
+        assertThat(count(CatalogueMetrics.ROWS_SCANNED, "search")).isGreaterThan(scannedBefore);
+    }
+
+    private double count(String name, String operation) {
+        var counter = meterRegistry.find(name).tag("operation", operation).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,222 @@
+package ma.ensaf.catalogue.outbox;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.domain.ProductOutboxEvent;
+import ma.ensaf.catalogue.domain.ProductOutboxState;
+import ma.ensaf.catalogue.dto.ProductChange;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductOutboxRepository;
+import ma.ensaf.catalogue.repository.ProductOutboxStateRepository;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+class ProductOutboxTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductOutboxPublisher outboxPublisher;
+
+    @Autowired
+    private ProductChangeBus productChangeBus;
+
+    @Autowired
+    private ProductOutboxRepository outboxRepository;
+
+    @Autowired
+    private ProductOutboxStateRepository stateRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Test
+    void shouldPublishCommittedChangesInOrderWithContiguousPositions() throws Exception {
+        // Given
+        List<ProductChange> received = new CopyOnWriteArrayList<>();
+        CountDownLatch deleted = new CountDownLatch(1);
+        Runnable unsubscribe = productChangeBus.subscribe(changes -> {
+            received.addAll(changes);
+            if (changes.stream().anyMatch(change -> change.type() == ProductChangedEvent.Type.DELETED && "OUTBOX-001".equals(change.sku()))) {
+                deleted.countDown();
+            }
+        });
+        try {
+            // When
+            Product product = productService.create(product("OUTBOX-001"));
+            productService.reserveStock(product.getId(), 2);
+            productService.deleteById(product.getId());
+            outboxPublisher.drain();
+            assertThat(deleted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Then
+            List<ProductChange> changes = received.stream()
+                .filter(change -> Objects.equals(change.productId(), product.getId())).toList();
+            assertThat(changes).extracting(ProductChange::type).containsExactly(
+                ProductChangedEvent.Type.CREATED, ProductChangedEvent.Type.UPDATED, ProductChangedEvent.Type.DELETED);
+            assertThat(changes.get(1).stockQuantity()).isEqualTo(8);
+            assertThat(changes.get(1).version()).isEqualTo(1L);
+            for (int i = 1; i < received.size(); i++) {
+                assertThat(received.get(i).position()).isEqualTo(received.get(i - 1).position() + 1);
+            }
+        } finally {
+            unsubscribe.run();
+        }
+    }
+
+    @Test
+    void shouldNotLetSlowSubscriberDelayOthers() throws Exception {
+        // Given : un abonné bloqué (client SSE lent) et un abonné rapide
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastReceived = new CountDownLatch(2);
+        List<ProductChange> slowReceived = new CopyOnWriteArrayList<>();
+        Runnable unsubscribeSlow = productChangeBus.subscribe(changes -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowReceived.addAll(changes);
+        });
+        Runnable unsubscribeFast = productChangeBus.subscribe(changes -> fastReceived.countDown());
+        try {
+            // When
+            productChangeBus.publish(List.of(change(-2)));
+            productChangeBus.publish(List.of(change(-1)));
+
+            // Then : publish rend la main et l'abonné rapide est servi, l'abonné lent reçoit ensuite ses lots dans l'ordre
+            assertThat(fastReceived.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(slowReceived).isEmpty();
+            release.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (slowReceived.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(slowReceived).extracting(ProductChange::position).containsExactly(-2L, -1L);
+        } finally {
+            release.countDown();
+            unsubscribeSlow.run();
+            unsubscribeFast.run();
+        }
+    }
+
+    @Test
+    void shouldNotPublishRolledBackWrites() {
+        // Given
+        long pendingBefore = pendingCount();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.create(product("OUTBOX-002"));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(pendingCount()).isEqualTo(pendingBefore);
+        assertThat(outboxRepository.findAll()).noneMatch(event -> "OUTBOX-002".equals(event.getSku()));
+    }
+
+    @Test
+    void shouldReplayMissedChangesOverSseAfterLastEventId() throws Exception {
+        // Given
+        outboxPublisher.drain();
+        long lastSeen = outboxRepository.findMaxPosition();
+        productService.create(product("OUTBOX-003"));
+        productService.create(product("OUTBOX-004"));
+        outboxPublisher.drain();
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        // When
+        String body = mockMvc.perform(get("/api/v1/products/changes").header("Last-Event-ID", lastSeen))
+            .andExpect(request().asyncStarted())
+            .andReturn().getResponse().getContentAsString();
+
+        // Then
+        assertThat(body).contains("id:" + (lastSeen + 1), "id:" + (lastSeen + 2), "event:CREATED", "OUTBOX-003", "OUTBOX-004");
+        assertThat(body).doesNotContain("id:" + lastSeen + "\n");
+    }
+
+    @Test
+    void shouldLetOnlyOneInstanceClaimABatchAtATime() throws Exception {
+        // Given : une autre instance tient le verrou de l'outbox (transaction ouverte dans un autre thread)
+        productService.create(product("OUTBOX-005"));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread otherInstance = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            assertThat(stateRepository.lockById(ProductOutboxState.ID)).isPresent();
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        otherInstance.start();
+        locked.await();
+
+        // When / Then : cette instance passe son tour au lieu d'attribuer les mêmes positions
+        try {
+            assertThat(outboxPublisher.drain()).isZero();
+        } finally {
+            release.countDown();
+            otherInstance.join();
+        }
+        // le verrou libéré, le lot est attribué (par cet appel ou par le drain planifié)
+        outboxPublisher.drain();
+        assertThat(outboxRepository.findAll()).filteredOn(event -> "OUTBOX-005".equals(event.getSku()))
+            .singleElement().extracting(ProductOutboxEvent::getPosition).isNotNull();
+        assertThat(stateRepository.findById(ProductOutboxState.ID)).get()
+            .extracting(ProductOutboxState::getLastPosition).isEqualTo(outboxRepository.findMaxPosition());
+    }
+
+    @Test
+    void shouldRejectDuplicatePositions() {
+        // Given
+        productService.create(product("OUTBOX-006"));
+        outboxPublisher.drain();
+        long position = outboxRepository.findMaxPosition();
+
+        // When / Then
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            ProductOutboxEvent duplicate = outboxRepository.findByPositionGreaterThanOrderByPositionAsc(position - 1, Limit.of(1)).getFirst();
+            ProductOutboxEvent copy = ProductOutboxEvent.builder().type(duplicate.getType()).productId(duplicate.getProductId())
+                .available(true).occurredAt(duplicate.getOccurredAt()).position(position).build();
+            outboxRepository.saveAndFlush(copy);
+        })).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private long pendingCount() {
+        return outboxRepository.findAll().stream().filter(event -> event.getPosition() == null).count();
+    }
+
+    private static ProductChange change(long position) {
+        return new ProductChange(position, ProductChangedEvent.Type.UPDATED, null, "OUTBOX-SLOW", 10.0, 10, true, 0L, null);
+    }
+
+    private static Product product(String sku) {
+        return Product.builder().name("Outbox " + sku).sku(sku).price(10.0).stockQuantity(10).available(true).build();
+    }
+}
@@ -0,0 +1,103 @@
+package ma.ensaf.catalogue.repository;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductFilter;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.service.ProductService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Vérifie avec EXPLAIN (H2) que les requêtes de listing utilisent les index composites de Product.
+ * La requête expliquée est celle que Hibernate envoie pour findByFilter (capturée par un StatementInspector),
+ * avec les mêmes valeurs de paramètres : colonnes, ORDER BY et prédicats sont ceux de l'endpoint.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ma.ensaf.catalogue.repository.ProductIndexUsageTest$CapturingInspector")
+class ProductIndexUsageTest {
+
+    /**
+     * Enregistre les requêtes SQL préparées par le thread du test pendant une capture
+     */
+    public static class CapturingInspector implements StatementInspector {
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void shouldUseCategoryAvailablePriceIndex() {
+        String plan = explainFilter(new ProductFilter("Electronics", 100.0, 500.0, true), 20,
+            "Electronics", true, 100.0, 500.0);
+
+        assertThat(plan).containsIgnoringCase("IDX_PRODUCTS_CATEGORY_AVAILABLE_PRICE");
+    }
+
+    @Test
+    void shouldUseAvailablePriceIndex() {
+        String plan = explainFilter(new ProductFilter(null, 100.0, 500.0, true), 20, true, 100.0, 500.0);
+
+        assertThat(plan).containsIgnoringCase("IDX_PRODUCTS_AVAILABLE_PRICE");
+    }
+
+    @Test
+    void shouldFilterOnAllCriteria() {
+        // Given
+        productService.create(product("IDX-1", "Audio", 50.0, true));
+        productService.create(product("IDX-2", "Audio", 150.0, true));
+        productService.create(product("IDX-3", "Audio", 120.0, false));
+        productService.create(product("IDX-4", "Audio", 300.0, true));
+        productService.create(product("IDX-5", "Video", 150.0, true));
+
+        // When
+        List<ProductSummary> result = productService.findByFilter(
+            new ProductFilter("Audio", 100.0, 400.0, true), Sort.by(Sort.Direction.DESC, "price"), 10);
+
+        // Then
+        assertThat(result).extracting(ProductSummary::sku).containsExactly("IDX-4", "IDX-2");
+    }
+
+    // exécute findByFilter (tri par prix, comme l'endpoint par défaut) et explique la requête envoyée,
+    // avec les valeurs des critères dans l'ordre du WHERE puis la limite
+    private String explainFilter(ProductFilter filter, int limit, Object... criteria) {
+        List<String> captured = new ArrayList<>();
+        CapturingInspector.CAPTURED.set(captured);
+        try {
+            productService.findByFilter(filter, Sort.by("price"), limit);
+        } finally {
+            CapturingInspector.CAPTURED.remove();
+        }
+        assertThat(captured).hasSize(1);
+        String sql = captured.getFirst();
+        List<Object> parameters = new ArrayList<>(List.of(criteria));
+        parameters.add(limit);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(parameters.size());
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters.toArray()));
+    }
+
+    private static Product product(String sku, String category, double price, boolean available) {
+        return Product.builder().name("Product " + sku).sku(sku).category(category).price(price).available(available).build();
+    }
+}
@@ -0,0 +1,126 @@
+package ma.ensaf.catalogue.search;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.metrics.CatalogueMetrics;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductPriceIndexTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogueMetrics metrics;
+
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+
+    private record Indexed(long id, double price, boolean available) {
+    }
+
+    @Test
+    void shouldMatchANaiveScanAcrossBlockSplitsAndRemovals() {
+        // Given : un index vide (hors contexte) et assez d'écritures pour découper et vider des blocs
+        ProductPriceIndex index = new ProductPriceIndex(productRepository, metrics);
+        Map<Long, Indexed> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When : insertions, changements de prix / disponibilité, suppressions ; i sert de version croissante
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(3 * ProductPriceIndex.BLOCK_CAPACITY);
+            if (random.nextInt(5) == 0) {
+                index.remove(id, i);
+                expected.remove(id);
+            } else {
+                // prix arrondis : beaucoup d'égalités, départagées par l'id
+                Indexed product = new Indexed(id, random.nextInt(200) / 2.0, random.nextBoolean());
+                index.index(Product.builder().id(id).price(product.price()).available(product.available()).version((long) i + 1).build());
+                expected.put(id, product);
+            }
+        }
+
+        // Then
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (Double[] range : new Double[][]{{null, null}, {10.0, 20.0}, {10.5, 10.5}, {null, 3.0}, {95.0, null}, {20.0, 10.0}}) {
+            for (Boolean available : new Boolean[]{null, true, false}) {
+                List<Long> naive = expected.values().stream()
+                    .filter(product -> (range[0] == null || product.price() >= range[0]) && (range[1] == null || product.price() <= range[1]))
+                    .filter(product -> available == null || product.available() == available)
+                    .sorted(Comparator.comparingDouble(Indexed::price).thenComparingLong(Indexed::id))
+                    .map(Indexed::id)
+                    .toList();
+                assertThat(index.count(range[0], range[1], available)).isEqualTo(naive.size());
+                assertThat(index.find(range[0], range[1], available, 0, Integer.MAX_VALUE)).isEqualTo(naive);
+                for (int offset : new int[]{1, 300, 700, naive.size()}) {
+                    assertThat(index.find(range[0], range[1], available, offset, 25))
+                        .isEqualTo(naive.subList(Math.min(offset, naive.size()), Math.min(offset + 25, naive.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldFollowProductWritesThroughTheService() {
+        // Given : une plage de prix propre à ce test
+        Product cheap = productService.create(product("PRICE-001", 70_000.0, true));
+        Product middle = productService.create(product("PRICE-002", 70_001.0, false));
+        Product expensive = productService.create(product("PRICE-003", 70_002.0, true));
+
+        // When / Then
+        assertThat(productService.countByPriceRange(70_000.0, 70_002.0, null)).isEqualTo(3);
+        assertThat(productService.countByPriceRange(70_000.0, 70_002.0, true)).isEqualTo(2);
+        assertThat(productService.findByPriceRange(70_000.0, 70_002.0, null, 1, 10)).extracting(ProductSummary::sku)
+            .containsExactly("PRICE-002", "PRICE-003");
+
+        // When : le moins cher devient le plus cher, le plus cher est supprimé
+        Product moved = product("PRICE-001", 70_003.0, true);
+        moved.setVersion(cheap.getVersion());
+        productService.update(cheap.getId(), moved);
+        productService.deleteById(expensive.getId());
+
+        // Then
+        assertThat(productService.findByPriceRange(70_000.0, null, null, 0, 10)).extracting(ProductSummary::id)
+            .containsExactly(middle.getId(), cheap.getId());
+        assertThat(productService.countByPriceRange(70_000.0, 70_002.0, null)).isEqualTo(1);
+        assertThatIllegalArgumentException().isThrownBy(() -> productService.countByPriceRange(2.0, 1.0, null));
+        assertThatIllegalArgumentException().isThrownBy(() -> productService.findByPriceRange(70_000.0, null, null, Integer.MAX_VALUE, 10));
+    }
+
+    @Test
+    void shouldIgnoreUpdateDeliveredAfterDelete() {
+        // Given : un produit modifié puis supprimé
+        Product created = productService.create(product("PRICE-004", 80_000.0, true));
+        created.setPrice(80_001.0);
+        Product updated = productService.update(created.getId(), created);
+        productService.deleteById(updated.getId());
+
+        // When : l'événement de la modification arrive après celui de la suppression
+        productPriceIndex.onProductChanged(ProductChangedEvent.updated(updated));
+
+        // Then
+        assertThat(productService.countByPriceRange(80_000.0, 80_001.0, null)).isZero();
+    }
+
+    private static Product product(String sku, double price, boolean available) {
+        return Product.builder().name("Price " + sku).sku(sku).price(price).stockQuantity(1).available(available).build();
+    }
+}
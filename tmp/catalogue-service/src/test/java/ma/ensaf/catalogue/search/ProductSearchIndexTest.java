@@ -0,0 +1,121 @@
+package ma.ensaf.catalogue.search;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setup() {
+        if (productRepository.existsBySku("SRCH-LAP-001")) {
+            return;
+        }
+        productService.create(product("Laptop Pro 15", "SRCH-LAP-001", "Electronics", "Ultrabook with a 15-inch display"));
+        productService.create(product("Phone case", "SRCH-ACC-002", "Accessories", "Protective case for smartphones"));
+        productService.create(product("Smartphone X", "SRCH-PHO-003", "Electronics", null));
+        productService.create(product("Desk lamp", "SRCH-HOM-004", "Home", "LED lamp, warm light"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"phone", "PHONE", "lap", "la", "a", "srch-lap", "-00", "15-inch", " ", "case for", "led lamp,", "xyz", ""})
+    void shouldMatchLikeSemantics(String keyword) {
+        // When
+        List<Long> fromIndex = productService.findByKeyword(keyword, 1000).stream().map(ProductSummary::id).toList();
+        List<Long> fromDatabase = ids(productRepository.findByKeyword(keyword));
+
+        // Then
+        assertThat(fromIndex).containsExactlyInAnyOrderElementsOf(fromDatabase);
+    }
+
+    @Test
+    void shouldRankNameMatchesFirst() {
+        // When
+        List<ProductSummary> result = productService.findByKeyword("phone", 10);
+
+        // Then
+        assertThat(result).extracting(ProductSummary::name)
+            .startsWith("Phone case", "Smartphone X");
+    }
+
+    @Test
+    void shouldLimitResults() {
+        assertThat(productService.findByKeyword("srch", 2)).hasSize(2);
+    }
+
+    @Test
+    void shouldFollowUpdatesAndDeletes() {
+        // Given
+        Product product = productService.create(product("Garden hose", "SRCH-GAR-005", "Garden", null));
+        assertThat(productSearchIndex.search("hose", 10)).contains(product.getId());
+
+        // When
+        product.setName("Garden pipe");
+        productService.update(product.getId(), product);
+
+        // Then
+        assertThat(productSearchIndex.search("hose", 10)).doesNotContain(product.getId());
+        assertThat(productSearchIndex.search("pipe", 10)).contains(product.getId());
+
+        // When
+        productService.deleteById(product.getId());
+
+        // Then
+        assertThat(productSearchIndex.search("pipe", 10)).doesNotContain(product.getId());
+    }
+
+    @Test
+    void shouldIgnoreEventsDeliveredOutOfOrder() {
+        // Given : deux modifications successives d'un produit
+        Product created = productService.create(product("Garden rake", "SRCH-GAR-006", "Garden", null));
+        created.setName("Garden shovel");
+        Product older = productService.update(created.getId(), created);
+        Product details = product("Garden trowel", "SRCH-GAR-006", "Garden", null);
+        details.setVersion(older.getVersion());
+        Product newer = productService.update(older.getId(), details);
+
+        // When : l'événement de la première modification arrive après celui de la seconde
+        productSearchIndex.onProductChanged(ProductChangedEvent.updated(older));
+
+        // Then : le texte le plus récent reste indexé
+        assertThat(productSearchIndex.search("shovel", 10)).doesNotContain(newer.getId());
+        assertThat(productSearchIndex.search("trowel", 10)).contains(newer.getId());
+
+        // When : suppression, puis un UPDATE en retard
+        productService.deleteById(newer.getId());
+        productSearchIndex.onProductChanged(ProductChangedEvent.updated(newer));
+
+        // Then : le produit supprimé ne revient pas
+        assertThat(productSearchIndex.search("trowel", 10)).doesNotContain(newer.getId());
+    }
+
+    private static Product product(String name, String sku, String category, String description) {
+        return Product.builder().name(name).sku(sku).category(category).description(description).price(10.0).build();
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package ma.ensaf.catalogue.search;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductSuggestion;
+import ma.ensaf.catalogue.event.ProductChangedEvent;
+import ma.ensaf.catalogue.repository.ProductRepository;
+import ma.ensaf.catalogue.search.SuggestionTrie.Suggestion;
+import ma.ensaf.catalogue.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductSuggestIndexTest {
+
+    private static final int K = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void shouldMatchANaiveTopKAcrossEdgeSplitsAndMerges() {
+        // Given : des clés courtes sur un petit alphabet (beaucoup de préfixes partagés, d'arêtes coupées puis refondues)
+        Random random = new Random(42);
+        Suggestion[] products = new Suggestion[60];
+        for (int id = 0; id < products.length; id++) {
+            products[id] = new Suggestion(id, "P" + id, null, random.nextInt(10));
+        }
+        Map<String, Set<Long>> expected = new HashMap<>();
+        SuggestionTrie trie = SuggestionTrie.empty(K);
+
+        // When : ajouts et retraits de (clé, produit), chaque version remplaçant la précédente
+        for (int i = 0; i < 5_000; i++) {
+            String key = randomKey(random);
+            int id = random.nextInt(products.length);
+            if (random.nextInt(3) == 0) {
+                trie = trie.without(key, id);
+                expected.getOrDefault(key, new HashSet<>()).remove((long) id);
+            } else {
+                trie = trie.with(key, products[id]);
+                expected.computeIfAbsent(key, ignored -> new HashSet<>()).add((long) id);
+            }
+        }
+
+        // Then : mêmes complétions que le calcul naïf, et que le trie reconstruit d'un coup
+        List<Map.Entry<String, Suggestion>> entries = new ArrayList<>();
+        expected.forEach((key, ids) -> ids.forEach(id -> entries.add(Map.entry(key, products[id.intValue()]))));
+        SuggestionTrie built = SuggestionTrie.build(entries, K);
+        for (String prefix : List.of("", "A", "B", "AB", "BA", "ABC", "CCA", "ABCA", "CBAC", "D")) {
+            List<Suggestion> naive = expected.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .flatMap(entry -> entry.getValue().stream())
+                .distinct()
+                .map(id -> products[id.intValue()])
+                .sorted(SuggestionTrie.RANKING)
+                .limit(K)
+                .toList();
+            assertThat(trie.complete(prefix, K)).as(prefix).isEqualTo(naive);
+            assertThat(built.complete(prefix, K)).as(prefix).isEqualTo(naive);
+            assertThat(trie.complete(prefix, 2)).isEqualTo(naive.subList(0, Math.min(2, naive.size())));
+        }
+    }
+
+    @Test
+    void shouldRankCompletionsByUnitsSold() {
+        // Given : trois produits dont le nom commence par le même mot
+        Product basic = productService.create(product("Quokkatel Basic", "SUGG-001"));
+        Product pro = productService.create(product("Quokkatel Pro", "SUGG-002"));
+        Product max = productService.create(product("Quokkatel Max", "SUGG-003"));
+
+        // When : Pro se vend le plus, puis Max ; une réservation annulée ne compte pas
+        productService.reserveStock(pro.getId(), 5);
+        productService.reserveStock(max.getId(), 3);
+        productService.reserveStock(basic.getId(), 4);
+        productService.releaseStock(basic.getId(), 4);
+
+        // Then : préfixe du nom, d'un mot du nom, du SKU, sans tenir compte de la casse
+        assertThat(productService.suggest("quokka", 10)).extracting(ProductSuggestion::name)
+            .containsExactly("Quokkatel Pro", "Quokkatel Max", "Quokkatel Basic");
+        assertThat(productService.suggest("quokkatel m", 10)).extracting(ProductSuggestion::id)
+            .containsExactly(max.getId());
+        assertThat(productService.suggest("bas", 10)).extracting(ProductSuggestion::sku).contains("SUGG-001");
+        assertThat(productService.suggest("sugg-00", 2)).extracting(ProductSuggestion::sku)
+            .containsExactly("SUGG-002", "SUGG-003");
+    }
+
+    @Test
+    void shouldFollowRenamesUnavailabilityAndDeletes() {
+        // Given
+        Product renamed = productService.create(product("Wombatcam Mini", "SUGG-101"));
+        Product hidden = productService.create(product("Wombatcam Plus", "SUGG-102"));
+        Product deleted = productService.create(product("Wombatcam Ultra", "SUGG-103"));
+
+        // When
+        Product details = product("Numbatcam Mini", "SUGG-101");
+        details.setVersion(renamed.getVersion());
+        productService.update(renamed.getId(), details);
+        Product unavailable = product("Wombatcam Plus", "SUGG-102");
+        unavailable.setAvailable(false);
+        unavailable.setVersion(hidden.getVersion());
+        productService.update(hidden.getId(), unavailable);
+        productService.deleteById(deleted.getId());
+
+        // Then
+        assertThat(productService.suggest("wombatcam", 10)).isEmpty();
+        assertThat(productService.suggest("numbat", 10)).extracting(ProductSuggestion::id).containsExactly(renamed.getId());
+        assertThat(productService.suggest("SUGG-10", 10)).extracting(ProductSuggestion::id).containsExactly(renamed.getId());
+    }
+
+    @Test
+    void shouldIgnoreUpdateDeliveredAfterDelete() {
+        // Given : un produit modifié puis supprimé
+        Product created = productService.create(product("Dugongscope One", "SUGG-201"));
+        created.setDescription("modifié");
+        Product updated = productService.update(created.getId(), created);
+        productService.deleteById(updated.getId());
+
+        // When : l'événement de la modification arrive après celui de la suppression
+        productSuggestIndex.onProductChanged(ProductChangedEvent.updated(updated));
+
+        // Then
+        assertThat(productService.suggest("dugong", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldFallBackToAPrefixQueryRankedByUnitsSold() {
+        // Given : la description et le milieu du SKU contiennent aussi le préfixe, un produit est indisponible
+        Product lite = productService.create(product("Tarsierpad Lite", "SUGG-301"));
+        Product air = productService.create(product("Tarsierpad Air", "SUGG-302"));
+        Product hidden = product("Tarsierpad Pro", "SUGG-303");
+        hidden.setAvailable(false);
+        productService.create(hidden);
+        Product other = product("Lorisbook", "SUGG-304");
+        other.setDescription("tarsierpad compatible");
+        productService.create(other);
+        productService.reserveStock(air.getId(), 2);
+
+        // When : la requête utilisée tant que le trie n'est pas construit
+        List<ProductSuggestion> suggestions = productRepository.findSuggestionsByPrefix("tarsier", Limit.of(10));
+
+        // Then : préfixe du nom ou du SKU seulement, produits disponibles, les plus vendus d'abord
+        assertThat(suggestions).extracting(ProductSuggestion::id).containsExactly(air.getId(), lite.getId());
+        assertThat(productRepository.findSuggestionsByPrefix("sugg-30", Limit.of(1))).extracting(ProductSuggestion::id)
+            .containsExactly(air.getId());
+        assertThat(productRepository.findSuggestionsByPrefix("301", Limit.of(10))).isEmpty();
+    }
+
+    private static String randomKey(Random random) {
+        char[] key = new char[1 + random.nextInt(5)];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (char) ('A' + random.nextInt(3));
+        }
+        return new String(key);
+    }
+
+    private static Product product(String name, String sku) {
+        return Product.builder().name(name).sku(sku).price(10.0).stockQuantity(100).available(true).build();
+    }
+}
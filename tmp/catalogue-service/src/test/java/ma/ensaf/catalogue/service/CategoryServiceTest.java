@@ -0,0 +1,124 @@
+package ma.ensaf.catalogue.service;
+
+import ma.ensaf.catalogue.cache.CategoryTreeCache;
+import ma.ensaf.catalogue.domain.Category;
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.CategoryNode;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class CategoryServiceTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Test
+    void shouldServeSubtreeProductsFromClosure() {
+        // Given : TREE-ELEC > TREE-COMP > TREE-LAPTOP, et TREE-PHONE sous TREE-ELEC
+        Category electronics = categoryService.create(category("TREE-ELEC", null, 1));
+        Category computers = categoryService.create(category("TREE-COMP", electronics.getId(), 2));
+        Category laptops = categoryService.create(category("TREE-LAPTOP", computers.getId(), 1));
+        Category phones = categoryService.create(category("TREE-PHONE", electronics.getId(), 1));
+        productService.create(product("TREE-001", "TREE-LAPTOP"));
+        productService.create(product("TREE-002", "TREE-PHONE"));
+        productService.create(product("TREE-003", "TREE-ELEC"));
+
+        // When / Then
+        assertThat(productService.findByCategoryTree(electronics.getId(), 10)).extracting(ProductSummary::sku)
+            .containsExactly("TREE-001", "TREE-002", "TREE-003");
+        assertThat(productService.findByCategoryTree(computers.getId(), 10)).extracting(ProductSummary::sku)
+            .containsExactly("TREE-001");
+        assertThat(categoryTreeCache.tree().ancestorsOf(laptops.getId()))
+            .containsExactly(electronics.getId(), computers.getId());
+
+        CategoryNode root = categoryService.findTree().stream()
+            .filter(node -> node.code().equals("TREE-ELEC")).findFirst().orElseThrow();
+        assertThat(root.children()).extracting(CategoryNode::code).containsExactly("TREE-PHONE", "TREE-COMP");
+        assertThat(root.children().get(1).children()).extracting(CategoryNode::id).containsExactly(laptops.getId());
+        assertThat(phones.isRoot()).isFalse();
+    }
+
+    @Test
+    void shouldSwapTreeWhenCategoryMoves() {
+        // Given
+        Category home = categoryService.create(category("MOVE-HOME", null, 0));
+        Category garden = categoryService.create(category("MOVE-GARDEN", null, 0));
+        Category tools = categoryService.create(category("MOVE-TOOLS", home.getId(), 0));
+        var before = categoryTreeCache.tree();
+
+        // When
+        tools.setParentCategoryId(garden.getId());
+        categoryService.update(tools.getId(), tools);
+
+        // Then : nouvel instantané, l'ancien est inchangé
+        assertThat(categoryTreeCache.tree()).isNotSameAs(before);
+        assertThat(categoryTreeCache.tree().subtreeOf(garden.getId())).containsExactlyInAnyOrder(garden.getId(), tools.getId());
+        assertThat(categoryTreeCache.tree().subtreeOf(home.getId())).containsExactly(home.getId());
+        assertThat(before.subtreeOf(home.getId())).containsExactlyInAnyOrder(home.getId(), tools.getId());
+    }
+
+    @Test
+    void shouldRejectCyclesDuplicateCodesAndDeletingParents() {
+        // Given
+        Category parent = categoryService.create(category("CYCLE-PARENT", null, 0));
+        Category child = categoryService.create(category("CYCLE-CHILD", parent.getId(), 0));
+
+        // When / Then
+        parent.setParentCategoryId(child.getId());
+        assertThatThrownBy(() -> categoryService.update(parent.getId(), parent))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("subcategory");
+        assertThatThrownBy(() -> categoryService.create(category("CYCLE-CHILD", null, 0)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("code");
+        assertThatThrownBy(() -> categoryService.deleteById(parent.getId()))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        categoryService.deleteById(child.getId());
+        categoryService.deleteById(parent.getId());
+        assertThat(categoryTreeCache.tree().contains(parent.getId())).isFalse();
+    }
+
+    @Test
+    void shouldKeepCodeReferencedByProducts() {
+        // Given : une catégorie et un produit qui la référence par son code
+        Category shoes = categoryService.create(category("KEEP-SHOES", null, 0));
+        Product product = productService.create(product("KEEP-001", "KEEP-SHOES"));
+
+        // When / Then : le code ne peut pas être renommé, la catégorie ne peut pas être supprimée
+        Category renamed = category("KEEP-BOOTS", null, 0);
+        assertThatThrownBy(() -> categoryService.update(shoes.getId(), renamed))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("cannot be changed");
+        assertThatThrownBy(() -> categoryService.deleteById(shoes.getId()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("still has products");
+        assertThat(productService.findByCategoryTree(shoes.getId(), 10)).extracting(ProductSummary::sku)
+            .containsExactly("KEEP-001");
+
+        // les autres champs restent modifiables ; sans produit, la catégorie peut être supprimée
+        categoryService.update(shoes.getId(), Category.builder().name("Chaussures").build());
+        productService.deleteById(product.getId());
+        categoryService.deleteById(shoes.getId());
+        assertThat(categoryService.findById(shoes.getId())).isEmpty();
+    }
+
+    private static Category category(String code, Long parentId, int displayOrder) {
+        return Category.builder().name("Category " + code).code(code).parentCategoryId(parentId).displayOrder(displayOrder).build();
+    }
+
+    private static Product product(String sku, String category) {
+        return Product.builder().name("Product " + sku).sku(sku).price(10.0).category(category).build();
+    }
+}
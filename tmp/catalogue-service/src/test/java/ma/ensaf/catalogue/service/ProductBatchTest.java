@@ -0,0 +1,58 @@
+package ma.ensaf.catalogue.service;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductBatchRequest;
+import ma.ensaf.catalogue.dto.ProductBatchResponse;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductBatchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void shouldResolveIdsAndSkusInRequestOrderAndReportMissing() {
+        // Given
+        Product first = productService.create(product("BATCH-001", 10.0));
+        Product second = productService.create(product("BATCH-002", 20.0));
+        productService.create(product("BATCH-003", 30.0));
+
+        // When : un doublon (second par id puis par sku), un id et un sku inconnus
+        ProductBatchResponse response = productService.findBatch(new ProductBatchRequest(
+            List.of(second.getId(), first.getId(), -1L, second.getId()),
+            List.of("BATCH-003", "BATCH-002", "UNKNOWN")));
+
+        // Then
+        assertThat(response.products()).extracting(ProductSummary::sku)
+            .containsExactly("BATCH-002", "BATCH-001", "BATCH-003");
+        assertThat(response.products().getFirst())
+            .isEqualTo(new ProductSummary(second.getId(), "BATCH-002", "Batch BATCH-002", 20.0, 5, true));
+        assertThat(response.missingIds()).containsExactly(-1L);
+        assertThat(response.missingSkus()).containsExactly("UNKNOWN");
+    }
+
+    @Test
+    void shouldResolveByIdsOnlyOrSkusOnly() {
+        // Given
+        Product product = productService.create(product("BATCH-004", 40.0));
+
+        // When / Then
+        assertThat(productService.findBatch(new ProductBatchRequest(List.of(product.getId()), null)).products())
+            .extracting(ProductSummary::sku).containsExactly("BATCH-004");
+        assertThat(productService.findBatch(new ProductBatchRequest(null, List.of("BATCH-004"))).products())
+            .extracting(ProductSummary::id).containsExactly(product.getId());
+        assertThat(productService.findBatch(new ProductBatchRequest(null, null)).products()).isEmpty();
+    }
+
+    private static Product product(String sku, double price) {
+        return Product.builder().name("Batch " + sku).sku(sku).price(price).stockQuantity(5).available(true).build();
+    }
+}
@@ -0,0 +1,126 @@
+package ma.ensaf.catalogue.service;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ImportReport;
+import ma.ensaf.catalogue.dto.ImportRowResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void shouldImportJsonArray() {
+        // Given
+        String json = """
+            [
+              {"name": "Keyboard", "sku": "IMP-JSON-1", "price": 49.9, "category": "Accessories"},
+              {"name": "Mouse", "sku": "IMP-JSON-2", "price": 19.9, "category": "Accessories"}
+            ]
+            """;
+
+        // When
+        ImportReport report = productImportService.importProducts(stream(json));
+
+        // Then
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.rejected()).isZero();
+        assertThat(productService.findBySku("IMP-JSON-2")).get().extracting(Product::getName).isEqualTo("Mouse");
+    }
+
+    @Test
+    void shouldReportRejectedRowsOfNdjson() {
+        // Given
+        productService.create(Product.builder().name("Existing").sku("IMP-ND-0").price(1.0).build());
+        String ndjson = """
+            {"name": "Existing again", "sku": "IMP-ND-0", "price": 1.0}
+            {"name": "Screen", "sku": "IMP-ND-1", "price": 199.0}
+            {"name": "Screen twin", "sku": "IMP-ND-1", "price": 199.0}
+            {"name": "No price", "sku": "IMP-ND-2"}
+            {"name": "Cable", "sku": "IMP-ND-3", "price": 5.0}
+            """;
+
+        // When
+        ImportReport report = productImportService.importProducts(stream(ndjson));
+
+        // Then
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.rows()).extracting(ImportRowResult::line, ImportRowResult::status).containsExactly(
+            tuple(1L, ImportRowResult.Status.REJECTED),
+            tuple(2L, ImportRowResult.Status.CREATED),
+            tuple(3L, ImportRowResult.Status.REJECTED),
+            tuple(4L, ImportRowResult.Status.REJECTED),
+            tuple(5L, ImportRowResult.Status.CREATED));
+        assertThat(report.rows().get(0).error()).contains("already exists");
+        assertThat(report.rows().get(1).id()).isNotNull();
+    }
+
+    @Test
+    void shouldStopAtMalformedRow() {
+        // Given
+        String ndjson = """
+            {"name": "Lamp", "sku": "IMP-BAD-1", "price": 30.0}
+            {"name": "Broken", "sku":
+            """;
+
+        // When
+        ImportReport report = productImportService.importProducts(stream(ndjson));
+
+        // Then
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.rows()).last().extracting(ImportRowResult::line, ImportRowResult::status)
+            .containsExactly(2L, ImportRowResult.Status.REJECTED);
+    }
+
+    @Test
+    void shouldIgnoreClientSuppliedVersionAndAuditDates() {
+        // Given
+        String ndjson = """
+            {"name": "Tripod", "sku": "IMP-VER-1", "price": 25.0, "version": 42, "createdAt": "2001-01-01T00:00:00"}
+            """;
+
+        // When
+        ImportReport report = productImportService.importProducts(stream(ndjson));
+
+        // Then
+        assertThat(report.created()).isEqualTo(1);
+        Product imported = productService.findBySku("IMP-VER-1").orElseThrow();
+        assertThat(imported.getVersion()).isZero();
+        assertThat(imported.getCreatedAt()).isAfter(LocalDateTime.now().minusHours(1));
+    }
+
+    @Test
+    void shouldNotLeakDatabaseErrorsInReport() {
+        // Given : une description trop longue pour sa colonne, refusée par la base au flush du lot
+        String ndjson = """
+            {"name": "Speaker", "sku": "IMP-RB-1", "price": 80.0}
+            {"name": "Amplifier", "sku": "IMP-RB-2", "price": 120.0, "description": "%s"}
+            """.formatted("x".repeat(1001));
+
+        // When
+        ImportReport report = productImportService.importProducts(stream(ndjson));
+
+        // Then : tout le lot est annulé, avec une raison qui ne cite ni SQL ni contrainte
+        assertThat(report.created()).isZero();
+        assertThat(report.rows()).extracting(ImportRowResult::error)
+            .allSatisfy(error -> assertThat(error).startsWith("Chunk rolled back").doesNotContainIgnoringCase("products"));
+        assertThat(productService.findBySku("IMP-RB-1")).isEmpty();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package ma.ensaf.catalogue.service;
+
+import ma.ensaf.catalogue.domain.Product;
+import ma.ensaf.catalogue.dto.ProductSummary;
+import ma.ensaf.catalogue.dto.StockReservationRequest;
+import ma.ensaf.catalogue.dto.StockReservationRequest.Line;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class ProductStockTest {
+
+    private static final int BUYERS = 200;
+    private static final int STOCK = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void shouldNeverOversellUnderConcurrentReservations() throws Exception {
+        // Given : 200 acheteurs pour 50 unités du même produit, qui partent tous en même temps
+        Product product = productService.create(product("STOCK-HOT", STOCK));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> purchases = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(BUYERS)) {
+            for (int i = 0; i < BUYERS; i++) {
+                purchases.add(executor.submit(() -> {
+                    start.await();
+                    return productService.reserveStock(product.getId(), 1).isPresent();
+                }));
+            }
+            start.countDown();
+        }
+
+        // Then : exactement 50 réservations acceptées, le stock est à 0 et jamais négatif
+        int reserved = 0;
+        for (Future<Boolean> purchase : purchases) {
+            if (purchase.get()) {
+                reserved++;
+            }
+        }
+        assertThat(reserved).isEqualTo(STOCK);
+        assertThat(productService.findBySku("STOCK-HOT")).get().extracting(Product::getStockQuantity).isEqualTo(0);
+    }
+
+    @Test
+    void shouldReserveAndReleaseStock() {
+        // Given
+        Product product = productService.create(product("STOCK-001", 5));
+
+        // When / Then
+        assertThat(productService.reserveStock(product.getId(), 3)).get().extracting(Product::getStockQuantity).isEqualTo(2);
+        assertThat(productService.reserveStock(product.getId(), 3)).isEmpty();
+        assertThat(productService.releaseStock(product.getId(), 3).getStockQuantity()).isEqualTo(5);
+        // le cache ne garde pas l'ancien stock
+        assertThat(productService.findById(product.getId())).get().extracting(Product::getStockQuantity).isEqualTo(5);
+        assertThatIllegalArgumentException().isThrownBy(() -> productService.reserveStock(product.getId(), 0));
+        assertThatRuntimeException().isThrownBy(() -> productService.reserveStock(-1L, 1))
+            .withMessage("Product not found with id: -1");
+    }
+
+    @Test
+    void shouldReserveWholeOrderOrNothing() {
+        // Given
+        Product first = productService.create(product("STOCK-003", 5));
+        Product second = productService.create(product("STOCK-004", 1));
+
+        // When : la deuxième ligne manque de stock
+        var refused = productService.reserveStock(new StockReservationRequest(
+            List.of(new Line(first.getId(), 2), new Line(second.getId(), 2))));
+
+        // Then : la première ligne n'a pas été réservée non plus
+        assertThat(refused).isEmpty();
+        assertThat(productService.findBySku("STOCK-003")).get().extracting(Product::getStockQuantity).isEqualTo(5);
+
+        // When : les lignes d'un même produit sont cumulées
+        var reserved = productService.reserveStock(new StockReservationRequest(
+            List.of(new Line(second.getId(), 1), new Line(first.getId(), 2), new Line(first.getId(), 1))));
+
+        // Then
+        assertThat(reserved.orElseThrow()).extracting(ProductSummary::stockQuantity).containsExactly(2, 0);
+        assertThat(productService.findById(first.getId())).get().extracting(Product::getStockQuantity).isEqualTo(2);
+        assertThatRuntimeException().isThrownBy(() -> productService.reserveStock(
+                new StockReservationRequest(List.of(new Line(first.getId(), 1), new Line(-1L, 1)))))
+            .withMessage("Product not found with id: -1");
+        assertThat(productService.findById(first.getId())).get().extracting(Product::getStockQuantity).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectUpdateBasedOnStaleVersion() {
+        // Given : un client lit le produit, puis une réservation le modifie
+        Product product = productService.create(product("STOCK-002", 10));
+        Long readVersion = product.getVersion();
+        productService.reserveStock(product.getId(), 4);
+
+        // When / Then : son update (stock = 10) écraserait la réservation, il est refusé
+        Product stale = product("STOCK-002", 10);
+        stale.setVersion(readVersion);
+        assertThatExceptionOfType(ObjectOptimisticLockingFailureException.class)
+            .isThrownBy(() -> productService.update(product.getId(), stale));
+        assertThat(productService.findBySku("STOCK-002")).get().extracting(Product::getStockQuantity).isEqualTo(6);
+    }
+
+    @Test
+    void shouldRequireVersionToUpdate() {
+        // Given : un client lit le produit, puis une réservation le modifie
+        Product product = productService.create(product("STOCK-005", 10));
+        productService.reserveStock(product.getId(), 4);
+
+        // When / Then : sans version, son update (stock = 10) ne peut pas être vérifié, il est refusé
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> productService.update(product.getId(), product("STOCK-005", 10)));
+        assertThat(productService.findBySku("STOCK-005")).get().extracting(Product::getStockQuantity).isEqualTo(6);
+    }
+
+    private static Product product(String sku, int stock) {
+        return Product.builder().name("Stock " + sku).sku(sku).price(10.0).stockQuantity(stock).available(true).build();
+    }
+}
@@ -0,0 +1,48 @@
+-- Schéma de la base "réplique" de ReadReplicaRoutingTest (une vraie réplique le reçoit par réplication)
+create table if not exists products (
+    id bigint not null primary key,
+    available boolean not null,
+    category varchar(255),
+    created_at timestamp(6),
+    description varchar(1000),
+    name varchar(255) not null,
+    price float(53) not null,
+    sku varchar(255) not null unique,
+    sold_quantity bigint default 0 not null,
+    stock_quantity integer,
+    updated_at timestamp(6),
+    version bigint
+);
+
+create table if not exists categories (
+    id bigint not null primary key,
+    archived boolean not null,
+    code varchar(255) not null unique,
+    created_at timestamp(6),
+    description varchar(255),
+    display_order integer,
+    name varchar(255) not null,
+    parent_category_id bigint,
+    updated_at timestamp(6)
+);
+
+create table if not exists product_outbox (
+    id bigint not null primary key,
+    type enum ('CREATED', 'DELETED', 'UPDATED') not null,
+    product_id bigint not null,
+    sku varchar(255),
+    price float(53),
+    stock_quantity integer,
+    available boolean not null,
+    product_version bigint,
+    occurred_at timestamp(6) not null,
+    position bigint,
+    published_at timestamp(6)
+);
+
+create unique index if not exists idx_product_outbox_position on product_outbox (position);
+
+create table if not exists product_outbox_state (
+    id bigint not null primary key,
+    last_position bigint not null
+);